@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import tech.wajs.reward.dto.TransactionDTO;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic transaction lists for benchmarks. All transactions are younger than the TOO_OLD window,
+ * so every generated dataset passes validation.
+ */
+public final class TransactionDatasets {
+
+    private static final long SEED = 20221107L;
+    private static final Duration MONTH = Duration.ofDays(28);
+    private static final int MAX_COST_IN_CENTS = 300_00;
+
+    private TransactionDatasets() {
+    }
+
+    public static List<TransactionDTO> generate(int size, int monthSpread) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        ZonedDateTime now = ZonedDateTime.now();
+        long spreadInSeconds = MONTH.multipliedBy(monthSpread).getSeconds();
+        List<TransactionDTO> transactions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            BigDecimal cost = BigDecimal.valueOf(random.nextInt(MAX_COST_IN_CENTS), 2);
+            ZonedDateTime time = now.minusSeconds(random.nextLong(spreadInSeconds));
+            transactions.add(new TransactionDTO(cost, time));
+        }
+        return transactions;
+    }
+
+    public static byte[] generateJson(int size, int monthSpread) {
+        try {
+            return mapper().writeValueAsBytes(generate(size, monthSpread));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Can not serialize benchmark dataset.", e);
+        }
+    }
+
+    /**
+     * Same transactions in the binary request encoding: little-endian epoch second and cost in cents.
+     */
+    public static byte[] generateBinary(int size, int monthSpread) {
+        List<TransactionDTO> transactions = generate(size, monthSpread);
+        ByteBuffer buffer = ByteBuffer.allocate(size * 16).order(ByteOrder.LITTLE_ENDIAN);
+        for (TransactionDTO transaction : transactions) {
+            buffer.putLong(transaction.getTime().toEpochSecond())
+                  .putLong(transaction.getCost().movePointRight(2).longValueExact());
+        }
+        return buffer.array();
+    }
+
+    public static ObjectMapper mapper() {
+        ObjectMapper mapper = new JsonMapper();
+        mapper.findAndRegisterModules(); // because: `java.time.ZonedDateTime` not supported by default
+        return mapper;
+    }
+}
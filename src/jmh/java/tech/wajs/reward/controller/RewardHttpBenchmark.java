@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.controller;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import tech.wajs.reward.RewardApplication;
+import tech.wajs.reward.benchmark.TransactionDatasets;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full HTTP path: Tomcat, message conversion, validation and calculation on a running application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RewardHttpBenchmark {
+
+    @Param({"1000", "10000", "1000000"})
+    int size;
+
+    @Param({"1", "3"})
+    int monthSpread;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(RewardApplication.class)
+                .properties("server.port=0")
+                .run();
+        String port = context.getEnvironment().getRequiredProperty("local.server.port");
+        client = HttpClient.newHttpClient();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/calculate-reward"))
+                             .header("Content-Type", "application/json")
+                             .POST(HttpRequest.BodyPublishers.ofByteArray(
+                                     TransactionDatasets.generateJson(size, monthSpread)))
+                             .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String calculateReward() throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected response: " + response.statusCode());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.controller;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import tech.wajs.reward.RewardApplication;
+import tech.wajs.reward.benchmark.TransactionDatasets;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many clients uploading their bodies slowly, served by the Tomcat thread pool ({@code platform}) or by virtual
+ * threads ({@code virtual}). Sample time mode reports p99 latency; compare the operation counts for throughput.
+ * The virtual variant needs Java 21, on older JDKs it falls back to the pool and matches {@code platform}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Threads(400)
+@Fork(1)
+public class SlowClientHttpBenchmark {
+
+    @Param({"platform", "virtual"})
+    String threads;
+
+    @Param({"1000"})
+    int size;
+
+    /** Body is sent in this many parts with a pause after each one. */
+    @Param({"10"})
+    int parts;
+
+    @Param({"20"})
+    int pauseMillis;
+
+    private ConfigurableApplicationContext context;
+    private int port;
+    private byte[] header;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(RewardApplication.class)
+                .properties("server.port=0", "reward.server.virtual-threads=" + "virtual".equals(threads))
+                .run();
+        port = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+        body = TransactionDatasets.generateJson(size, 1);
+        header = ("POST /api/calculate-reward HTTP/1.1\r\n"
+                + "Host: localhost\r\n"
+                + "Content-Type: application/json\r\n"
+                + "Content-Length: " + body.length + "\r\n"
+                + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int slowUpload() throws IOException, InterruptedException {
+        try (Socket socket = new Socket("localhost", port)) {
+            OutputStream out = socket.getOutputStream();
+            out.write(header);
+            int partSize = (body.length + parts - 1) / parts;
+            for (int offset = 0; offset < body.length; offset += partSize) {
+                out.write(body, offset, Math.min(partSize, body.length - offset));
+                out.flush();
+                Thread.sleep(pauseMillis);
+            }
+            int status = readStatus(socket.getInputStream());
+            if (status != 200) {
+                throw new IllegalStateException("Unexpected response: " + status);
+            }
+            return status;
+        }
+    }
+
+    private static int readStatus(InputStream in) throws IOException {
+        StringBuilder statusLine = new StringBuilder();
+        for (int b = in.read(); b != -1 && b != '\n'; b = in.read()) {
+            statusLine.append((char) b);
+        }
+        // HTTP/1.1 200
+        return Integer.parseInt(statusLine.substring(9, 12));
+    }
+}
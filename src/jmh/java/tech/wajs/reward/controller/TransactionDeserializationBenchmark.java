@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.wajs.reward.benchmark.TransactionDatasets;
+import tech.wajs.reward.dto.TransactionDTO;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionDeserializationBenchmark {
+
+    private static final TypeReference<List<TransactionDTO>> TRANSACTIONS = new TypeReference<>() {
+    };
+
+    @Param({"1000", "10000", "1000000"})
+    int size;
+
+    @Param({"1", "3"})
+    int monthSpread;
+
+    private ObjectMapper mapper;
+    private byte[] json;
+
+    @Setup
+    public void setUp() {
+        mapper = TransactionDatasets.mapper();
+        json = TransactionDatasets.generateJson(size, monthSpread);
+    }
+
+    @Benchmark
+    public List<TransactionDTO> readTransactions() throws IOException {
+        return mapper.readValue(json, TRANSACTIONS);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import tech.wajs.reward.benchmark.TransactionDatasets;
+import tech.wajs.reward.dto.TransactionDTO;
+import tech.wajs.reward.ingest.TransactionStreamReader;
+import tech.wajs.reward.metrics.RewardMetrics;
+import tech.wajs.reward.programs.RewardProgram;
+import tech.wajs.reward.validators.RewardValidators;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalculatePointsBenchmark {
+
+    private static final int COSTS = 1024;
+
+    private RewardService rewardService;
+    private long[] costsInCents;
+
+    @Setup
+    public void setUp() {
+        rewardService = new RewardService(new RewardValidators(),
+                new TransactionStreamReader(TransactionDatasets.mapper()), RewardProgram.DEFAULT,
+                Clock.systemDefaultZone(), RewardMetrics.noop());
+        costsInCents = TransactionDatasets.generate(COSTS, 1).stream()
+                                          .map(TransactionDTO::getCost)
+                                          .mapToLong(RewardService::toCents)
+                                          .toArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COSTS)
+    public void calculatePoints(Blackhole blackhole) {
+        for (long cents : costsInCents) {
+            blackhole.consume(rewardService.calculatePoints(cents));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.wajs.reward.benchmark.TransactionDatasets;
+import tech.wajs.reward.dto.RewardDTO;
+import tech.wajs.reward.dto.TransactionDTO;
+import tech.wajs.reward.ingest.TransactionStreamReader;
+import tech.wajs.reward.metrics.RewardMetrics;
+import tech.wajs.reward.programs.RewardProgram;
+import tech.wajs.reward.validators.RewardValidators;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RewardServiceBenchmark {
+
+    @Param({"1000", "10000", "1000000"})
+    int size;
+
+    @Param({"1", "3"})
+    int monthSpread;
+
+    private RewardService rewardService;
+    private List<TransactionDTO> transactions;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() {
+        rewardService = new RewardService(new RewardValidators(),
+                new TransactionStreamReader(TransactionDatasets.mapper()), RewardProgram.DEFAULT,
+                Clock.systemDefaultZone(), RewardMetrics.noop());
+        transactions = TransactionDatasets.generate(size, monthSpread);
+        json = TransactionDatasets.generateJson(size, monthSpread);
+        binary = TransactionDatasets.generateBinary(size, monthSpread);
+    }
+
+    @Benchmark
+    public RewardDTO calculateReward() {
+        return rewardService.calculateReward(transactions);
+    }
+
+    @Benchmark
+    public RewardDTO calculateRewardStreaming() throws IOException {
+        return rewardService.calculateReward(new ByteArrayInputStream(json));
+    }
+
+    @Benchmark
+    public RewardDTO calculateRewardBinary() throws IOException {
+        return rewardService.calculateReward(new ByteArrayInputStream(binary), false, RewardProgram.DEFAULT);
+    }
+}
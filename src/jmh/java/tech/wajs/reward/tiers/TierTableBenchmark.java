@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.tiers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TierTableBenchmark {
+
+    private static final int COSTS = 1024;
+
+    @Param({"2", "10", "50"})
+    int tiers;
+
+    private TierTable table;
+    private long[] costsInCents;
+
+    @Setup
+    public void setUp() {
+        List<Tier> tierList = IntStream.range(0, tiers).mapToObj(i -> new Tier(50L * (i + 1), i + 1)).toList();
+        table = TierTable.compile(tierList);
+        SplittableRandom random = new SplittableRandom(20221107L);
+        costsInCents = random.longs(COSTS, 0, 100L * 50 * (tiers + 1)).toArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COSTS)
+    public void points(Blackhole blackhole) {
+        for (long cents : costsInCents) {
+            blackhole.consume(table.points(cents));
+        }
+    }
+}
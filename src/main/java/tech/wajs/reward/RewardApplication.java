@@ -2,12 +2,22 @@ package tech.wajs.reward;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Clock;
 
 @SpringBootApplication
+@EnableScheduling
 public class RewardApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(RewardApplication.class, args);
 	}
 
+	@Bean
+	public Clock clock() {
+		return Clock.systemDefaultZone();
+	}
+
 }
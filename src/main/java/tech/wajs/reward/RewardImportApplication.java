@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import tech.wajs.reward.bulk.CsvStatementImporter;
+import tech.wajs.reward.bulk.ImportResult;
+import tech.wajs.reward.programs.RewardProgram;
+import tech.wajs.reward.validators.RewardValidators;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+
+/**
+ * Command line entry point of the bulk CSV import, it runs without the web application:
+ * {@code RewardImportApplication <statement.csv> [--threads=N] [--output=rewards.json]}.
+ */
+public class RewardImportApplication {
+    private static final String THREADS = "--threads=";
+    private static final String OUTPUT = "--output=";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path file = null;
+        Path output = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (String arg : args) {
+            if (arg.startsWith(THREADS)) {
+                threads = Integer.parseInt(arg.substring(THREADS.length()));
+            } else if (arg.startsWith(OUTPUT)) {
+                output = Path.of(arg.substring(OUTPUT.length()));
+            } else {
+                file = Path.of(arg);
+            }
+        }
+        if (file == null || threads < 1) {
+            System.err.println("Usage: RewardImportApplication <statement.csv> [--threads=N] [--output=rewards.json]");
+            System.exit(2);
+        }
+
+        CsvStatementImporter importer = new CsvStatementImporter(RewardProgram.DEFAULT, new RewardValidators(),
+                Clock.systemDefaultZone(), threads);
+        ImportResult result = importer.importFile(file);
+
+        ObjectWriter writer = new JsonMapper().findAndRegisterModules().writerWithDefaultPrettyPrinter();
+        if (output == null) {
+            writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(System.out, result.getCustomers());
+        } else {
+            try (OutputStream stream = Files.newOutputStream(output)) {
+                writer.writeValue(stream, result.getCustomers());
+            }
+        }
+        System.err.printf("Imported %d rows (%d malformed) for %d customers in %.3f s, %.0f rows/s%n",
+                result.getRows(), result.getMalformedRows(), result.getCustomers().size(),
+                result.getNanos() / 1e9, result.getRowsPerSecond());
+        if (result.isHeader()) {
+            System.err.println("Skipped the first line as a header");
+        }
+        if (result.getFirstMalformedOffset() >= 0) {
+            System.err.printf("First malformed row at byte %d%n", result.getFirstMalformedOffset());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Weighted, non-blocking semaphore: a request takes as many units as its body has bytes. A request heavier than
+ * the whole budget takes the whole budget, so it is admitted only when nothing else is in flight.
+ */
+class AdmissionBudget {
+    private final long capacity;
+    private final AtomicLong inFlight = new AtomicLong();
+
+    AdmissionBudget(long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return units taken, to be passed to {@link #release(long)}, or {@code -1} if the budget is used up
+     */
+    long tryAcquire(long weight) {
+        long units = Math.min(weight, capacity);
+        while (true) {
+            long current = inFlight.get();
+            if (current + units > capacity) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + units)) {
+                return units;
+            }
+        }
+    }
+
+    void release(long units) {
+        inFlight.addAndGet(-units);
+    }
+
+    long getCapacity() {
+        return capacity;
+    }
+
+    long getInFlight() {
+        return inFlight.get();
+    }
+}
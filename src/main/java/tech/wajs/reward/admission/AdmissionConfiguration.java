@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import tech.wajs.reward.metrics.RewardMetrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "reward.admission", name = "enabled", havingValue = "true")
+public class AdmissionConfiguration {
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(AdmissionProperties properties,
+                                                                                 RewardMetrics metrics,
+                                                                                 ObjectMapper objectMapper) {
+        Map<String, AdmissionControlFilter.Endpoint> endpoints = new HashMap<>();
+        for (AdmissionProperties.Endpoint endpoint : properties.getEndpoints()) {
+            AdmissionBudget budget = new AdmissionBudget(endpoint.getMaxInFlight().toBytes());
+            endpoints.put(endpoint.getPath(), new AdmissionControlFilter.Endpoint(endpoint.getPath(), budget));
+            metrics.registerInFlightBytes(endpoint.getPath(), budget::getInFlight);
+        }
+        AdmissionBudget total = properties.getTotalInFlight() == null
+                ? null
+                : new AdmissionBudget(properties.getTotalInFlight().toBytes());
+
+        FilterRegistrationBean<AdmissionControlFilter> registration =
+                new FilterRegistrationBean<>(new AdmissionControlFilter(endpoints, total, metrics, objectMapper));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tech.wajs.reward.exceptions.KnownException;
+import tech.wajs.reward.metrics.RewardMetrics;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admits a request to a limited end-point only while the bytes of request bodies in flight fit in the end-point's
+ * budget ({@code 429} otherwise) and in the common budget ({@code 503} otherwise). Rejection happens before the
+ * body is read. A body without Content-Length may be of any size, so it is charged the whole end-point budget.
+ * Requests that continue asynchronously keep their share until the response is complete.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    static final String ADMITTED = "admitted";
+    static final String REJECTED_ENDPOINT = "rejected-endpoint";
+    static final String REJECTED_TOTAL = "rejected-total";
+
+    private final Map<String, Endpoint> endpoints;
+    private final AdmissionBudget total;
+    private final RewardMetrics metrics;
+    private final ObjectMapper objectMapper;
+
+    AdmissionControlFilter(Map<String, Endpoint> endpoints, AdmissionBudget total, RewardMetrics metrics,
+                           ObjectMapper objectMapper) {
+        this.endpoints = endpoints;
+        this.total = total;
+        this.metrics = metrics;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Endpoint endpoint = endpoints.get(request.getRequestURI().substring(request.getContextPath().length()));
+        if (endpoint == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long weight = request.getContentLengthLong();
+        if (weight < 0) {
+            weight = endpoint.budget().getCapacity();
+        }
+        long endpointUnits = endpoint.budget().tryAcquire(weight);
+        if (endpointUnits < 0) {
+            reject(response, endpoint, REJECTED_ENDPOINT, HttpStatus.TOO_MANY_REQUESTS);
+            return;
+        }
+        long totalUnits = total == null ? 0 : total.tryAcquire(weight);
+        if (totalUnits < 0) {
+            endpoint.budget().release(endpointUnits);
+            reject(response, endpoint, REJECTED_TOTAL, HttpStatus.SERVICE_UNAVAILABLE);
+            return;
+        }
+        metrics.recordAdmission(endpoint.path(), ADMITTED);
+
+        Release release = new Release(endpoint, endpointUnits, totalUnits);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(release);
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, Endpoint endpoint, String decision, HttpStatus status)
+            throws IOException {
+        metrics.recordAdmission(endpoint.path(), decision);
+        KnownException rejection = new KnownException("Server is busy, try again later.", status);
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                List.of(rejection.getMessage(), rejection.getErrorId().toString()));
+    }
+
+    record Endpoint(String path, AdmissionBudget budget) {
+    }
+
+    private class Release implements AsyncListener, Runnable {
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final Endpoint endpoint;
+        private final long endpointUnits;
+        private final long totalUnits;
+
+        Release(Endpoint endpoint, long endpointUnits, long totalUnits) {
+            this.endpoint = endpoint;
+            this.endpointUnits = endpointUnits;
+            this.totalUnits = totalUnits;
+        }
+
+        @Override
+        public void run() {
+            if (released.compareAndSet(false, true)) {
+                endpoint.budget().release(endpointUnits);
+                if (total != null) {
+                    total.release(totalUnits);
+                }
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.admission;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "reward.admission")
+public class AdmissionProperties {
+    private boolean enabled;
+    /** Bytes of request bodies all limited end-points may process at once; empty means no common limit. */
+    private DataSize totalInFlight;
+    private List<Endpoint> endpoints = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Endpoint {
+        private String path;
+        private DataSize maxInFlight;
+    }
+}
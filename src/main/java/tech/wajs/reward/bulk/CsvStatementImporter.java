@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.bulk;
+
+import org.springframework.http.HttpStatus;
+import tech.wajs.reward.dto.CustomerRewardDTO;
+import tech.wajs.reward.exceptions.KnownException;
+import tech.wajs.reward.programs.RewardProgram;
+import tech.wajs.reward.service.MonthBoundaries;
+import tech.wajs.reward.service.MonthlyPointsAccumulator;
+import tech.wajs.reward.tiers.TierTable;
+import tech.wajs.reward.validators.RewardValidators;
+import tech.wajs.reward.validators.ValidationContext;
+import tech.wajs.reward.validators.Validator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Calculates rewards of every customer in a CSV statement with rows {@code customerId,time,cost}. The time is
+ * either epoch seconds (taken in UTC) or an ISO-8601 date-time with offset, and the cost is in dollars. A first
+ * line that does not parse as a row is treated as a header.
+ * <p>
+ * The file is memory-mapped in chunks that end at line boundaries, and each chunk is parsed straight from the
+ * mapped bytes and aggregated on its own thread. Chunk results are merged in file order. A customer with an
+ * invalid row gets the error of its first one; rows that can not be parsed are counted and skipped.
+ */
+public class CsvStatementImporter {
+    private static final long CHUNK_SIZE = 64L * 1024 * 1024;
+    private static final int BOUNDARY_SCAN = 8 * 1024;
+    private static final int CENTS_DIGITS = 2;
+    static final String TIME_OUT_OF_RANGE = "Transaction time is out of range.";
+
+    private final RewardProgram program;
+    private final RewardValidators validator;
+    private final Clock clock;
+    private final int threads;
+    private final long chunkSize;
+
+    public CsvStatementImporter(RewardProgram program, RewardValidators validator, Clock clock, int threads) {
+        this(program, validator, clock, threads, CHUNK_SIZE);
+    }
+
+    CsvStatementImporter(RewardProgram program, RewardValidators validator, Clock clock, int threads,
+                         long chunkSize) {
+        this.program = program;
+        this.validator = validator;
+        this.clock = clock;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportResult importFile(Path file) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        ValidationContext context = ValidationContext.of(clock, program.getMaxAgeInMonths());
+        MonthBoundaries months = MonthBoundaries.around(context.getCurrentMonth(), program.getMaxAgeInMonths());
+        ChunkResult merged = new ChunkResult();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<Future<ChunkResult>> chunks = new ArrayList<>();
+            long chunkStart = 0;
+            while (chunkStart < channel.size()) {
+                long from = chunkStart;
+                long to = chunkEnd(channel, Math.min(chunkStart + chunkSize, channel.size()));
+                chunks.add(pool.submit(() -> new ChunkParser(context, months).parse(channel, from, to)));
+                chunkStart = to;
+            }
+            for (Future<ChunkResult> chunk : chunks) {
+                merged.merge(chunk.get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IllegalStateException("Can not import " + file + ".", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<CustomerRewardDTO> customers = new ArrayList<>(merged.customers.size());
+        merged.customers.forEach((customerId, customer) -> customers.add(toCustomerReward(customerId, customer)));
+        customers.sort(Comparator.comparing(CustomerRewardDTO::getCustomerId));
+        return new ImportResult(customers, merged.rows, merged.header, merged.malformedRows,
+                merged.firstMalformedOffset,
+                System.nanoTime() - start);
+    }
+
+    private static CustomerRewardDTO toCustomerReward(long customerId, Customer customer) {
+        if (customer.error == null) {
+            try {
+                return CustomerRewardDTO.success(customerId, customer.accumulator.toReward());
+            } catch (KnownException e) {
+                customer.error = e;
+            }
+        }
+        return CustomerRewardDTO.failure(customerId, customer.error);
+    }
+
+    /**
+     * @return first line start at or after {@code candidate}
+     */
+    private static long chunkEnd(FileChannel channel, long candidate) throws IOException {
+        long size = channel.size();
+        if (candidate >= size) {
+            return size;
+        }
+        ByteBuffer window = ByteBuffer.allocate(BOUNDARY_SCAN);
+        long position = candidate - 1;
+        while (position < size) {
+            window.clear();
+            int read = channel.read(window, position);
+            for (int i = 0; i < read; i++) {
+                if (window.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += Math.max(read, 1);
+        }
+        return size;
+    }
+
+    private static class Customer {
+        private final MonthlyPointsAccumulator accumulator = new MonthlyPointsAccumulator();
+        private KnownException error;
+    }
+
+    private static class ChunkResult {
+        private final Map<Long, Customer> customers = new HashMap<>();
+        private long rows;
+        private long malformedRows;
+        private long firstMalformedOffset = -1;
+        private boolean header;
+
+        private void merge(ChunkResult chunk) {
+            header |= chunk.header;
+            rows += chunk.rows;
+            malformedRows += chunk.malformedRows;
+            if (firstMalformedOffset < 0) {
+                firstMalformedOffset = chunk.firstMalformedOffset;
+            }
+            chunk.customers.forEach((customerId, customer) -> {
+                Customer merged = customers.putIfAbsent(customerId, customer);
+                if (merged == null) {
+                    return;
+                }
+                if (merged.error == null) {
+                    merged.error = customer.error;
+                }
+                if (merged.error == null) {
+                    try {
+                        merged.accumulator.merge(customer.accumulator);
+                    } catch (KnownException e) {
+                        merged.error = e;
+                    }
+                }
+            });
+        }
+    }
+
+    private class ChunkParser {
+        private final ValidationContext context;
+        private final MonthBoundaries months;
+        private final TierTable tierTable = program.getTierTable();
+        private final ChunkResult result = new ChunkResult();
+        private MappedByteBuffer buffer;
+
+        // fields of the row being parsed
+        private long customerId;
+        private long epochSecond;
+        private int nano;
+        private int offsetSeconds;
+        private long cents;
+
+        ChunkParser(ValidationContext context, MonthBoundaries months) {
+            this.context = context;
+            this.months = months;
+        }
+
+        ChunkResult parse(FileChannel channel, long from, long to) throws IOException {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+            int limit = buffer.limit();
+            int lineStart = 0;
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                int contentEnd = lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+                if (contentEnd > lineStart) {
+                    if (parseRow(lineStart, contentEnd)) {
+                        result.rows++;
+                        aggregate();
+                    } else if (from == 0 && lineStart == 0) {
+                        result.header = true;
+                    } else {
+                        result.malformedRows++;
+                        if (result.firstMalformedOffset < 0) {
+                            result.firstMalformedOffset = from + lineStart;
+                        }
+                    }
+                }
+                lineStart = lineEnd + 1;
+            }
+            return result;
+        }
+
+        private void aggregate() {
+            Customer customer = result.customers.computeIfAbsent(customerId, id -> new Customer());
+            if (customer.error != null) {
+                return;
+            }
+            if (cents < 0) {
+                fail(customer, RewardValidators.NEGATIVE_COST);
+            } else if (context.isTooOld(epochSecond, nano)) {
+                fail(customer, context.getTooOld());
+            } else {
+                try {
+                    customer.accumulator.add(months.monthIndex(epochSecond, offsetSeconds), tierTable.points(cents));
+                } catch (KnownException e) {
+                    customer.error = e;
+                } catch (ArithmeticException | DateTimeException e) {
+                    customer.error = new KnownException(TIME_OUT_OF_RANGE, HttpStatus.UNPROCESSABLE_ENTITY);
+                }
+            }
+        }
+
+        private void fail(Customer customer, Validator<?> rule) {
+            try {
+                validator.reject(rule);
+            } catch (KnownException e) {
+                customer.error = e;
+            }
+        }
+
+        private boolean parseRow(int start, int end) {
+            int firstComma = indexOf(',', start, end);
+            int secondComma = firstComma < 0 ? -1 : indexOf(',', firstComma + 1, end);
+            if (secondComma < 0 || indexOf(',', secondComma + 1, end) >= 0) {
+                return false;
+            }
+            return parseCustomerId(start, firstComma)
+                    && parseTime(firstComma + 1, secondComma)
+                    && parseCents(secondComma + 1, end);
+        }
+
+        private boolean parseCustomerId(int start, int end) {
+            long value = parseLong(unquotedStart(start, end), unquotedEnd(start, end));
+            if (value < 0) {
+                return false;
+            }
+            customerId = value;
+            return true;
+        }
+
+        private boolean parseTime(int start, int end) {
+            int from = unquotedStart(start, end);
+            int to = unquotedEnd(start, end);
+            long value = parseLong(from, to);
+            if (value >= 0) {
+                epochSecond = value;
+                nano = 0;
+                offsetSeconds = 0;
+                return true;
+            }
+            byte[] text = new byte[Math.max(0, to - from)];
+            buffer.get(from, text);
+            try {
+                OffsetDateTime time = OffsetDateTime.parse(new String(text, StandardCharsets.US_ASCII));
+                epochSecond = time.toEpochSecond();
+                nano = time.getNano();
+                offsetSeconds = time.getOffset().getTotalSeconds();
+                return true;
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Dollars with optional sign and fraction; digits past cents are dropped, as in
+         * {@link tech.wajs.reward.service.RewardService#toCents(java.math.BigDecimal)}.
+         */
+        private boolean parseCents(int start, int end) {
+            int i = unquotedStart(start, end);
+            int to = unquotedEnd(start, end);
+            boolean negative = i < to && buffer.get(i) == '-';
+            if (negative) {
+                i++;
+            }
+            long dollars = 0;
+            int digits = 0;
+            while (i < to && isDigit(buffer.get(i))) {
+                dollars = dollars * 10 + buffer.get(i++) - '0';
+                digits++;
+            }
+            long fraction = 0;
+            int fractionDigits = 0;
+            if (i < to && buffer.get(i) == '.') {
+                i++;
+                while (i < to && isDigit(buffer.get(i))) {
+                    if (fractionDigits < CENTS_DIGITS) {
+                        fraction = fraction * 10 + buffer.get(i) - '0';
+                        fractionDigits++;
+                    }
+                    digits++;
+                    i++;
+                }
+            }
+            if (i != to || digits == 0 || digits > 17) {
+                return false;
+            }
+            for (; fractionDigits < CENTS_DIGITS; fractionDigits++) {
+                fraction *= 10;
+            }
+            long value = dollars * 100 + fraction;
+            cents = negative ? -value : value;
+            return true;
+        }
+
+        /**
+         * @return the non-negative number, or {@code -1} if the field is not all digits
+         */
+        private long parseLong(int start, int end) {
+            if (start >= end || end - start > 18) {
+                return -1;
+            }
+            long value = 0;
+            for (int i = start; i < end; i++) {
+                byte b = buffer.get(i);
+                if (!isDigit(b)) {
+                    return -1;
+                }
+                value = value * 10 + b - '0';
+            }
+            return value;
+        }
+
+        private int unquotedStart(int start, int end) {
+            return end - start >= 2 && buffer.get(start) == '"' && buffer.get(end - 1) == '"' ? start + 1 : start;
+        }
+
+        private int unquotedEnd(int start, int end) {
+            return end - start >= 2 && buffer.get(start) == '"' && buffer.get(end - 1) == '"' ? end - 1 : end;
+        }
+
+        private int indexOf(char c, int start, int end) {
+            for (int i = start; i < end; i++) {
+                if (buffer.get(i) == c) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.bulk;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import tech.wajs.reward.dto.CustomerRewardDTO;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ImportResult {
+    List<CustomerRewardDTO> customers;
+    long rows;
+    /** Whether the first line did not parse as a row and was skipped as a header. */
+    boolean header;
+    long malformedRows;
+    /** Byte offset of the first malformed row, {@code -1} if there is none. */
+    long firstMalformedOffset;
+    long nanos;
+
+    public double getRowsPerSecond() {
+        return nanos == 0 ? 0 : rows * 1_000_000_000d / nanos;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+import tech.wajs.reward.dto.CacheStatsDTO;
+import tech.wajs.reward.dto.RewardDTO;
+import tech.wajs.reward.dto.TransactionDTO;
+import tech.wajs.reward.programs.RewardProgram;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU cache of rewards keyed by a {@link TransactionFingerprint} and reward program. An entry lives for
+ * {@code reward.cache.ttl}, but never past the moment its oldest transaction becomes too old for the program,
+ * so a cached reward is never returned for a list that would now fail validation.
+ */
+@Component
+public class RewardResultCache implements MeterBinder {
+    private final Clock clock;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Map<Key, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public RewardResultCache(Clock clock,
+                             @Value("${reward.cache.enabled:false}") boolean enabled,
+                             @Value("${reward.cache.max-size:10000}") int maxSize,
+                             @Value("${reward.cache.ttl:PT5M}") Duration ttl) {
+        this.clock = clock;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public RewardDTO getOrCalculate(List<TransactionDTO> transactions,
+                                    RewardProgram program,
+                                    Function<List<TransactionDTO>, RewardDTO> calculation) {
+        if (!enabled || CollectionUtils.isEmpty(transactions)) {
+            return calculation.apply(transactions);
+        }
+        TransactionFingerprint fingerprint = TransactionFingerprint.of(transactions);
+        if (fingerprint == null) {
+            return calculation.apply(transactions);
+        }
+        Key key = new Key(fingerprint, program);
+        Instant now = clock.instant();
+        RewardDTO cached = get(key, now);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        RewardDTO reward = calculation.apply(transactions);
+        put(key, new Entry(reward, expiresAt(TransactionFingerprint.oldest(transactions), now, clock.getZone(), ttl,
+                program.getMaxAgeInMonths())));
+        return reward;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("reward.cache.hits", hits, LongAdder::sum).register(registry);
+        FunctionCounter.builder("reward.cache.misses", misses, LongAdder::sum).register(registry);
+        FunctionCounter.builder("reward.cache.evictions", evictions, LongAdder::sum).register(registry);
+        Gauge.builder("reward.cache.size", this, cache -> cache.getStats().getSize()).register(registry);
+    }
+
+    public CacheStatsDTO getStats() {
+        synchronized (entries) {
+            return new CacheStatsDTO(enabled, hits.sum(), misses.sum(), evictions.sum(), entries.size());
+        }
+    }
+
+    static Instant expiresAt(ZonedDateTime oldest, Instant now, ZoneId zone, Duration ttl, int maxAgeInMonths) {
+        Instant tooOld = oldest.withZoneSameInstant(zone)
+                               .plusMonths(maxAgeInMonths)
+                               .toInstant();
+        Instant afterTtl = now.plus(ttl);
+        return tooOld.isBefore(afterTtl) ? tooOld : afterTtl;
+    }
+
+    private RewardDTO get(Key key, Instant now) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (!now.isBefore(entry.expiresAt())) {
+                entries.remove(key);
+                evictions.increment();
+                return null;
+            }
+            return entry.reward();
+        }
+    }
+
+    private void put(Key key, Entry entry) {
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Programs compare by identity, so a reloaded program never shares entries with its previous version.
+     */
+    private record Key(TransactionFingerprint fingerprint, RewardProgram program) {
+    }
+
+    private record Entry(RewardDTO reward, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.cache;
+
+import tech.wajs.reward.dto.TransactionDTO;
+import tech.wajs.reward.service.RewardService;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Order-independent 128-bit hash of a transaction list. Every transaction is normalized to its instant, UTC
+ * offset and cost in cents, so lists that only differ in order, zone id or cost scale ({@code 120} vs
+ * {@code 120.00}) share a fingerprint, because they produce the same reward.
+ */
+record TransactionFingerprint(long firstHash, long secondHash, int size) {
+
+    /**
+     * @return fingerprint, or {@code null} when a transaction is incomplete and will fail validation anyway
+     */
+    static TransactionFingerprint of(List<TransactionDTO> transactions) {
+        long firstHash = 0;
+        long secondHash = 0;
+        for (TransactionDTO transaction : transactions) {
+            if (transaction == null || transaction.getCost() == null || transaction.getTime() == null) {
+                return null;
+            }
+            ZonedDateTime time = transaction.getTime();
+            long epochSecond = time.toEpochSecond();
+            long nanoAndOffset = ((long) time.getNano() << 32) | (time.getOffset().getTotalSeconds() & 0xffffffffL);
+            long cents = RewardService.toCents(transaction.getCost());
+            firstHash += mix(mix(mix(epochSecond) ^ nanoAndOffset) ^ cents);
+            secondHash += mix(mix(mix(cents ^ 0x9E3779B97F4A7C15L) ^ epochSecond) ^ Long.reverse(nanoAndOffset));
+        }
+        return new TransactionFingerprint(firstHash, secondHash, transactions.size());
+    }
+
+    static ZonedDateTime oldest(List<TransactionDTO> transactions) {
+        ZonedDateTime oldest = transactions.get(0).getTime();
+        for (TransactionDTO transaction : transactions) {
+            if (transaction.getTime().isBefore(oldest)) {
+                oldest = transaction.getTime();
+            }
+        }
+        return oldest;
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.controller;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tech.wajs.reward.dto.CustomerRewardDTO;
+import tech.wajs.reward.dto.CustomerTransactionsDTO;
+import tech.wajs.reward.server.AsyncTimeoutConfiguration;
+import tech.wajs.reward.service.BatchRewardService;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+@RestController
+@RequestMapping("/api")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BatchRewardController {
+
+    private BatchRewardService batchRewardService;
+    private ObjectMapper objectMapper;
+    private Duration streamTimeout;
+
+    public BatchRewardController(BatchRewardService batchRewardService,
+                                 ObjectMapper objectMapper,
+                                 @Value("${reward.batch.stream-timeout:PT10M}") Duration streamTimeout) {
+        this.batchRewardService = batchRewardService;
+        this.objectMapper = objectMapper;
+        this.streamTimeout = streamTimeout;
+    }
+
+    @PostMapping(value = "/calculate-reward/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<CustomerRewardDTO> getRewards(@RequestBody List<CustomerTransactionsDTO> customers) {
+
+        return batchRewardService.calculateRewards(customers);
+    }
+
+    @PostMapping(value = "/calculate-reward/batch/stream",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getRewardsStreaming(InputStream customersJson,
+                                                                     HttpServletRequest request) throws IOException {
+
+        // an empty batch is rejected here, while an error body can still be written
+        JsonParser customers = batchRewardService.openCustomers(customersJson);
+        AsyncTimeoutConfiguration.setTimeout(request, streamTimeout);
+        return ResponseEntity.ok()
+                             .contentType(MediaType.APPLICATION_NDJSON)
+                             .body(output -> batchRewardService.calculateRewards(customers, ndjsonWriter(output)));
+    }
+
+    private Consumer<CustomerRewardDTO> ndjsonWriter(OutputStream output) {
+        ObjectWriter writer = objectMapper.writerFor(CustomerRewardDTO.class);
+        return reward -> {
+            try {
+                output.write(writer.writeValueAsBytes(reward));
+                output.write('\n');
+                output.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
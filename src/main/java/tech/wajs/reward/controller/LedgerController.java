@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.controller;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import tech.wajs.reward.dto.RewardDTO;
+import tech.wajs.reward.dto.TransactionDTO;
+import tech.wajs.reward.ledger.RewardLedger;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/customers")
+@AllArgsConstructor
+@ConditionalOnProperty(prefix = "reward.ledger", name = "enabled", havingValue = "true")
+public class LedgerController {
+
+    private RewardLedger rewardLedger;
+
+    @PostMapping(value = "/{customerId}/transactions", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public RewardDTO addTransactions(@PathVariable long customerId,
+                                     @RequestBody List<TransactionDTO> transactions) {
+
+        return rewardLedger.addTransactions(customerId, transactions);
+    }
+
+    @GetMapping("/{customerId}/reward")
+    public RewardDTO getReward(@PathVariable long customerId) {
+
+        return rewardLedger.getReward(customerId);
+    }
+}
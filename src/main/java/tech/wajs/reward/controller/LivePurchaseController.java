@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.controller;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import tech.wajs.reward.dto.LeaderboardEntryDTO;
+import tech.wajs.reward.dto.PeriodRewardDTO;
+import tech.wajs.reward.dto.RewardDTO;
+import tech.wajs.reward.dto.TransactionDTO;
+import tech.wajs.reward.enums.RollupPeriod;
+import tech.wajs.reward.live.LivePurchaseService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/live")
+@AllArgsConstructor
+@ConditionalOnProperty(prefix = "reward.live", name = "enabled", havingValue = "true")
+public class LivePurchaseController {
+
+    private LivePurchaseService livePurchaseService;
+
+    @PostMapping(value = "/customers/{customerId}/purchases", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void addPurchase(@PathVariable long customerId, @RequestBody TransactionDTO purchase) {
+
+        livePurchaseService.addPurchase(customerId, purchase);
+    }
+
+    @GetMapping("/customers/{customerId}/reward")
+    public RewardDTO getReward(@PathVariable long customerId) {
+
+        return livePurchaseService.getReward(customerId);
+    }
+
+    @GetMapping("/customers/{customerId}/points")
+    public List<PeriodRewardDTO> getPoints(@PathVariable long customerId,
+                                           @RequestParam(required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                           @RequestParam(required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                           @RequestParam(required = false) String last,
+                                           @RequestParam(required = false) String period) {
+
+        return livePurchaseService.getPoints(customerId, from, to, last, RollupPeriod.of(period));
+    }
+
+    @GetMapping("/leaderboard")
+    public List<LeaderboardEntryDTO> getLeaderboard(@RequestParam(defaultValue = "100") int limit) {
+
+        return livePurchaseService.getLeaderboard(limit);
+    }
+}
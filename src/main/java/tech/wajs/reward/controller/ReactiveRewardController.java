@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.controller;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tech.wajs.reward.dto.RewardDTO;
+import tech.wajs.reward.dto.TransactionDTO;
+import tech.wajs.reward.programs.RewardProgramRegistry;
+import tech.wajs.reward.service.ReactiveRewardService;
+
+/**
+ * Reward end-point of the reactive stack, active with {@code spring.main.web-application-type=reactive}. The body
+ * is a JSON array or newline-delimited JSON, decoded one transaction at a time.
+ */
+@RestController
+@RequestMapping("/api")
+@AllArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRewardController {
+
+    private ReactiveRewardService reactiveRewardService;
+    private RewardProgramRegistry rewardPrograms;
+
+    @PostMapping(value = "/calculate-reward/reactive",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<RewardDTO> getReward(@RequestBody Flux<TransactionDTO> transactions,
+                                     @RequestParam(name = "program", required = false) String programId) {
+
+        return Mono.fromSupplier(() -> rewardPrograms.get(programId))
+                   .flatMap(program -> reactiveRewardService.calculateReward(transactions, program));
+    }
+}
@@ -5,27 +5,89 @@
 package tech.wajs.reward.controller;
 
 import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import tech.wajs.reward.cache.RewardResultCache;
+import tech.wajs.reward.dto.CacheStatsDTO;
 import tech.wajs.reward.dto.RewardDTO;
 import tech.wajs.reward.dto.TransactionDTO;
+import tech.wajs.reward.enums.ValidationMode;
+import tech.wajs.reward.exceptions.KnownException;
+import tech.wajs.reward.ingest.BinaryTransactionReader;
+import tech.wajs.reward.metrics.RewardMetrics;
+import tech.wajs.reward.programs.RewardProgram;
+import tech.wajs.reward.programs.RewardProgramRegistry;
 import tech.wajs.reward.service.RewardService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api")
 @AllArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class RewardController {
+    private static final String OUTCOME_OK = "ok";
+    private static final String OUTCOME_REJECTED = "rejected";
+    private static final String OUTCOME_ERROR = "error";
 
     private RewardService rewardService;
+    private RewardResultCache rewardResultCache;
+    private RewardProgramRegistry rewardPrograms;
+    private RewardMetrics metrics;
 
     @PostMapping(value = "/calculate-reward", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public RewardDTO getReward(@RequestBody List<TransactionDTO> transactions) {
+    public RewardDTO getReward(@RequestBody List<TransactionDTO> transactions,
+                               @RequestParam(name = "program", required = false) String programId,
+                               @RequestParam(name = "validation", required = false) String validation) {
+        long start = System.nanoTime();
+        String outcome = OUTCOME_ERROR;
+        try {
+            RewardProgram program = rewardPrograms.get(programId);
+            ValidationMode validationMode = ValidationMode.of(validation);
+            RewardDTO reward = rewardResultCache.getOrCalculate(transactions, program,
+                    list -> rewardService.calculateReward(list, program, validationMode));
+            outcome = OUTCOME_OK;
 
-        return rewardService.calculateReward(transactions);
+            return reward;
+        } catch (KnownException e) {
+            outcome = OUTCOME_REJECTED;
+            throw e;
+        } finally {
+            metrics.recordRequest("calculate-reward", transactions.size(), outcome, System.nanoTime() - start);
+        }
+    }
+
+    @PostMapping(value = "/calculate-reward/stream", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public RewardDTO getRewardStreaming(InputStream transactions,
+                                        @RequestParam(name = "program", required = false) String programId)
+            throws IOException {
+
+        return rewardService.calculateReward(transactions, rewardPrograms.get(programId));
+    }
+
+    @PostMapping(value = "/calculate-reward", consumes = BinaryTransactionReader.MEDIA_TYPE_VALUE)
+    public RewardDTO getRewardBinary(InputStream transactions,
+                                     @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                     @RequestParam(name = "program", required = false) String programId)
+            throws IOException {
+
+        return rewardService.calculateReward(transactions, BinaryTransactionReader.hasCustomerId(contentType),
+                rewardPrograms.get(programId));
+    }
+
+    @GetMapping("/calculate-reward/cache")
+    public CacheStatsDTO getCacheStats() {
+
+        return rewardResultCache.getStats();
     }
 }
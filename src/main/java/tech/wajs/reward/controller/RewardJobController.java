@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.controller;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import tech.wajs.reward.dto.RewardDTO;
+import tech.wajs.reward.dto.RewardJobDTO;
+import tech.wajs.reward.jobs.RewardJobService;
+import tech.wajs.reward.programs.RewardProgramRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/calculate-reward/jobs")
+@AllArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RewardJobController {
+
+    private RewardJobService rewardJobService;
+    private RewardProgramRegistry rewardPrograms;
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<RewardJobDTO> submitJob(InputStream transactions,
+                                                  @RequestParam(name = "program", required = false) String programId)
+            throws IOException {
+        RewardJobDTO job = rewardJobService.submit(transactions, rewardPrograms.get(programId));
+
+        return ResponseEntity.accepted()
+                             .location(URI.create("/api/calculate-reward/jobs/" + job.getId()))
+                             .body(job);
+    }
+
+    @GetMapping("/{jobId}")
+    public RewardJobDTO getJob(@PathVariable String jobId) {
+
+        return rewardJobService.getJob(jobId);
+    }
+
+    @GetMapping("/{jobId}/result")
+    public RewardDTO getResult(@PathVariable String jobId) {
+
+        return rewardJobService.getResult(jobId);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.dedup;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over two 64-bit hashes of a key, with bit positions derived by double hashing. It is sized for
+ * {@code expectedInsertions} keys at {@code falsePositiveRate}; past that the rate grows, which
+ * {@link #expectedFalsePositiveRate()} reports.
+ */
+class BloomFilter {
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray(Math.toIntExact((Math.max(64, m) + 63) / 64));
+        this.bits = words.length() * 64L;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+    }
+
+    boolean mightContain(long firstHash, long secondHash) {
+        long combined = firstHash;
+        for (int i = 0; i < hashes; i++, combined += secondHash) {
+            long bit = (combined & Long.MAX_VALUE) % bits;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void put(long firstHash, long secondHash) {
+        long combined = firstHash;
+        for (int i = 0; i < hashes; i++, combined += secondHash) {
+            long bit = (combined & Long.MAX_VALUE) % bits;
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    /**
+     * @return share of bits that are set
+     */
+    double fill() {
+        long set = 0;
+        for (int i = 0; i < words.length(); i++) {
+            set += Long.bitCount(words.get(i));
+        }
+        return (double) set / bits;
+    }
+
+    double expectedFalsePositiveRate() {
+        return Math.pow(fill(), hashes);
+    }
+
+    long bitSize() {
+        return bits;
+    }
+}
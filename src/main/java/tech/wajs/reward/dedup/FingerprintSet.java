@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.dedup;
+
+/**
+ * Open-addressing set of up to {@code capacity} 64-bit key hashes in a primitive array allocated up front, so its
+ * memory does not change however many keys are offered. Slots are chosen by the high half of the hash, so a caller
+ * may pick the set by its low bits. Once full it takes no more keys. Not thread-safe.
+ */
+class FingerprintSet {
+    private static final long EMPTY = 0;
+
+    private final long[] slots;
+    private final int capacity;
+    private int size;
+
+    FingerprintSet(int capacity) {
+        this.capacity = capacity;
+        this.slots = new long[Integer.highestOneBit(Math.max(2, capacity + capacity / 3 + 1) * 2 - 1)];
+    }
+
+    boolean contains(long fingerprint) {
+        long value = fingerprint == EMPTY ? 1 : fingerprint;
+        int mask = slots.length - 1;
+        for (int slot = (int) (value >>> 32) & mask; slots[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (slots[slot] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a fingerprint the set does not contain yet.
+     *
+     * @return {@code false} if the set is full and the fingerprint was not added
+     */
+    boolean add(long fingerprint) {
+        if (size == capacity) {
+            return false;
+        }
+        long value = fingerprint == EMPTY ? 1 : fingerprint;
+        int mask = slots.length - 1;
+        int slot = (int) (value >>> 32) & mask;
+        while (slots[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = value;
+        size++;
+        return true;
+    }
+
+    boolean isFull() {
+        return size == capacity;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long bytes() {
+        return (long) slots.length * Long.BYTES;
+    }
+}
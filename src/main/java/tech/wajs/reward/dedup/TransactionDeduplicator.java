@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.dedup;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recognizes transaction ids delivered more than once. Ids are only unique per customer, so a key is the customer
+ * id together with the transaction id. A duplicate has the same time as the original, so keys are kept per
+ * transaction month and a month is dropped once it leaves the reward window.
+ * <p>
+ * Every month has a {@link BloomFilter} sized by {@code reward.dedup.expected-per-month} and
+ * {@code reward.dedup.false-positive-rate}, and a fixed-size exact table with room for the 64-bit hashes of
+ * {@code expected-per-month} keys, split into {@value #STRIPES} {@link FingerprintSet}s guarded by the same striped
+ * locks. Both are allocated when the month is first seen, so memory does not grow with volume. The filter is
+ * checked first; only a key it has probably seen is looked up in the table. A hit there is a duplicate, a miss
+ * is a false positive and the purchase is kept.
+ * <p>
+ * Past the expected volume the table takes no more keys, and a filter hit it can not confirm is kept as a new
+ * purchase and counted in {@code reward.dedup.unconfirmed}. No genuine purchase is ever dropped; a redelivery of
+ * a purchase that did not fit into the table is counted twice.
+ */
+@Service
+@ConditionalOnProperty(prefix = "reward.live", name = "enabled", havingValue = "true")
+public class TransactionDeduplicator implements MeterBinder {
+    private static final int STRIPES = 64;
+
+    private final Map<Long, Generation> generations = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[STRIPES];
+    private final long expectedPerMonth;
+    private final double falsePositiveRate;
+    private final LongAdder checked = new LongAdder();
+    private final LongAdder exactDuplicates = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder unconfirmed = new LongAdder();
+
+    public TransactionDeduplicator(@Value("${reward.dedup.expected-per-month:1000000}") long expectedPerMonth,
+                                   @Value("${reward.dedup.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.expectedPerMonth = expectedPerMonth;
+        this.falsePositiveRate = falsePositiveRate;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * @return {@code true} if the id was already seen for a transaction of the customer in {@code month},
+     * otherwise the id is remembered
+     */
+    public boolean isDuplicate(long customerId, String id, long month) {
+        long firstHash = hash(customerId, id, 0x9E3779B97F4A7C15L);
+        long secondHash = hash(customerId, id, 0xC2B2AE3D27D4EB4FL) | 1;
+        Generation generation = generations.computeIfAbsent(month, m -> new Generation());
+        checked.increment();
+        int stripe = (int) (firstHash & (STRIPES - 1));
+        synchronized (locks[stripe]) {
+            FingerprintSet exact = generation.exact[stripe];
+            if (generation.filter.mightContain(firstHash, secondHash)) {
+                if (exact.contains(firstHash)) {
+                    exactDuplicates.increment();
+                    return true;
+                }
+                if (exact.isFull()) {
+                    unconfirmed.increment();
+                    return false;
+                }
+                falsePositives.increment();
+            } else {
+                generation.filter.put(firstHash, secondHash);
+            }
+            exact.add(firstHash);
+            return false;
+        }
+    }
+
+    public void removeMonthsBefore(long month) {
+        generations.keySet().removeIf(m -> m < month);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("reward.dedup.checked", checked, LongAdder::sum).register(registry);
+        FunctionCounter.builder("reward.dedup.duplicates", exactDuplicates, LongAdder::sum)
+                       .tag("match", "exact").register(registry);
+        FunctionCounter.builder("reward.dedup.false-positives", falsePositives, LongAdder::sum).register(registry);
+        FunctionCounter.builder("reward.dedup.unconfirmed", unconfirmed, LongAdder::sum).register(registry);
+        Gauge.builder("reward.dedup.generations", generations, Map::size).register(registry);
+        Gauge.builder("reward.dedup.filter.bits", this, deduplicator -> deduplicator.generations.values().stream()
+                .mapToLong(generation -> generation.filter.bitSize()).sum()).register(registry);
+        Gauge.builder("reward.dedup.filter.fill", this, deduplicator -> deduplicator.generations.values().stream()
+                .mapToDouble(generation -> generation.filter.fill()).max().orElse(0)).register(registry);
+        Gauge.builder("reward.dedup.filter.false-positive-rate", this,
+                deduplicator -> deduplicator.generations.values().stream()
+                        .mapToDouble(generation -> generation.filter.expectedFalsePositiveRate()).max().orElse(0))
+             .register(registry);
+        Gauge.builder("reward.dedup.exact.size", this, deduplicator -> deduplicator.generations.values().stream()
+                .mapToLong(deduplicator::exactSize).sum()).register(registry);
+        Gauge.builder("reward.dedup.exact.bytes", this, TransactionDeduplicator::exactBytes).register(registry);
+    }
+
+    long exactBytes() {
+        long bytes = 0;
+        for (Generation generation : generations.values()) {
+            for (FingerprintSet exact : generation.exact) {
+                bytes += exact.bytes();
+            }
+        }
+        return bytes;
+    }
+
+    private static long hash(long customerId, String id, long seed) {
+        long hash = (seed ^ customerId) * 0x100000001B3L;
+        for (int i = 0; i < id.length(); i++) {
+            hash = (hash ^ id.charAt(i)) * 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private long exactSize(Generation generation) {
+        long size = 0;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            synchronized (locks[stripe]) {
+                size += generation.exact[stripe].size();
+            }
+        }
+        return size;
+    }
+
+    private class Generation {
+        private final BloomFilter filter = new BloomFilter(expectedPerMonth, falsePositiveRate);
+        private final FingerprintSet[] exact = new FingerprintSet[STRIPES];
+
+        Generation() {
+            int stripeCapacity = (int) Math.max(1, (expectedPerMonth + STRIPES - 1) / STRIPES);
+            for (int i = 0; i < STRIPES; i++) {
+                exact[i] = new FingerprintSet(stripeCapacity);
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class CacheStatsDTO {
+    boolean enabled;
+    long hits;
+    long misses;
+    long evictions;
+    int size;
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import tech.wajs.reward.exceptions.KnownException;
+
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CustomerRewardDTO {
+    Long customerId;
+    RewardDTO reward;
+    String error;
+    String errorId;
+
+    public static CustomerRewardDTO success(Long customerId, RewardDTO reward) {
+        return new CustomerRewardDTO(customerId, reward, null, null);
+    }
+
+    public static CustomerRewardDTO failure(Long customerId, KnownException exception) {
+        return new CustomerRewardDTO(customerId, null, exception.getMessage(), exception.getErrorId().toString());
+    }
+}
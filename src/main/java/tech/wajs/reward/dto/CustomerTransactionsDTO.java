@@ -0,0 +1,17 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Getter
+public class CustomerTransactionsDTO {
+    private Long customerId;
+    private List<TransactionDTO> transactions;
+}
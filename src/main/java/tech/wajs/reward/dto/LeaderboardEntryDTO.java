@@ -0,0 +1,16 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class LeaderboardEntryDTO {
+    Integer rank;
+    Long customerId;
+    Integer points;
+}
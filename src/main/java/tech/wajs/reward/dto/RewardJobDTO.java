@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import tech.wajs.reward.enums.JobStatus;
+
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RewardJobDTO {
+    String id;
+    JobStatus status;
+    long processedBytes;
+    long totalBytes;
+    RewardDTO reward;
+    String error;
+    String errorId;
+}
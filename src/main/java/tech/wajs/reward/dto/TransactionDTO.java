@@ -4,15 +4,24 @@
 
 package tech.wajs.reward.dto;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 
-@AllArgsConstructor
+@AllArgsConstructor(onConstructor_ = @JsonCreator)
 @Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class TransactionDTO {
     private BigDecimal cost;
     private ZonedDateTime time;
+    /** Optional id assigned upstream, used to drop redelivered purchases. */
+    private String id;
+
+    public TransactionDTO(BigDecimal cost, ZonedDateTime time) {
+        this(cost, time, null);
+    }
 }
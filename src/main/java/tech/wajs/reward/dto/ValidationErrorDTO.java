@@ -0,0 +1,18 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ValidationErrorDTO {
+    String error;
+    String errorId;
+    List<ViolationDTO> violations;
+}
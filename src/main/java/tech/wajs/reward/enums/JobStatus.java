@@ -0,0 +1,12 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.enums;
+
+public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED
+}
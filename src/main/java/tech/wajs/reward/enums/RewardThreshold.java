@@ -11,10 +11,10 @@ public enum RewardThreshold {
     FIFTY_DOLLARS(50, 1),
     HUNDRED_DOLLARS(100, 2);
 
-    private final Integer cost;
-    private final Integer pointsPerDollar;
+    private final int cost;
+    private final int pointsPerDollar;
 
-    RewardThreshold(Integer cost, Integer pointsPerDollar) {
+    RewardThreshold(int cost, int pointsPerDollar) {
         this.cost = cost;
         this.pointsPerDollar = pointsPerDollar;
     }
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.enums;
+
+import org.springframework.http.HttpStatus;
+import tech.wajs.reward.exceptions.KnownException;
+
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+public enum RollupPeriod {
+    DAY,
+    MONTH,
+    QUARTER,
+    /** One entry for the whole range. */
+    TOTAL;
+
+    public static RollupPeriod of(String value) {
+        if (value == null || value.isBlank()) {
+            return MONTH;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new KnownException("Unknown rollup period.", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * @return last day of the period that contains {@code day}
+     */
+    public LocalDate lastDay(LocalDate day) {
+        return switch (this) {
+            case DAY -> day;
+            case MONTH -> day.with(TemporalAdjusters.lastDayOfMonth());
+            case QUARTER -> day.with(IsoFields.DAY_OF_QUARTER, 1).plusMonths(3).minusDays(1);
+            case TOTAL -> LocalDate.MAX;
+        };
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.enums;
+
+import org.springframework.http.HttpStatus;
+import tech.wajs.reward.exceptions.KnownException;
+
+import java.util.Locale;
+
+public enum ValidationMode {
+    /** Stop at the first invalid transaction. */
+    FIRST,
+    /** Validate the whole list before aggregating and report every invalid transaction. */
+    ALL;
+
+    public static ValidationMode of(String value) {
+        if (value == null || value.isBlank()) {
+            return FIRST;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new KnownException("Unknown validation mode.", HttpStatus.BAD_REQUEST);
+        }
+    }
+}
@@ -6,26 +6,41 @@ package tech.wajs.reward.exceptions;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import tech.wajs.reward.dto.ValidationErrorDTO;
 
 import java.util.List;
 
+/**
+ * Error bodies are always JSON, also for end-points that produce another media type such as NDJSON.
+ */
 @ControllerAdvice
 @Slf4j
 public class ErrorHandler {
     @ExceptionHandler(KnownException.class)
     public ResponseEntity handleKnownException(KnownException e) {
-        return ResponseEntity.status(e.getResponseCode()).body(List.of(e.getMessage(), e.getErrorId().toString()));
+        return ResponseEntity.status(e.getResponseCode())
+                             .contentType(MediaType.APPLICATION_JSON)
+                             .body(List.of(e.getMessage(), e.getErrorId().toString()));
+    }
+
+    @ExceptionHandler(ValidationException.class)
+    public ResponseEntity<ValidationErrorDTO> handleValidationException(ValidationException e) {
+        return ResponseEntity.status(e.getResponseCode())
+                             .contentType(MediaType.APPLICATION_JSON)
+                             .body(new ValidationErrorDTO(e.getMessage(), e.getErrorId().toString(),
+                                     e.getViolations()));
     }
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity handleKnownException(Exception e) {
         KnownException knownException = new KnownException("Internal error.", HttpStatus.INTERNAL_SERVER_ERROR);
-        log.error(knownException.getErrorId().toString());
-        e.printStackTrace();
+        log.error("Internal error: errorId={}", knownException.getErrorId(), e);
         return ResponseEntity.status(knownException.getResponseCode())
+                             .contentType(MediaType.APPLICATION_JSON)
                              .body(List.of(knownException.getMessage(), knownException.getErrorId().toString()));
     }
 }
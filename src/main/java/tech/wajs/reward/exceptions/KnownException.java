@@ -8,7 +8,13 @@ import lombok.Getter;
 import org.springframework.http.HttpStatus;
 
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * Expected failure reported to the client. It carries no stack trace and its error id comes from
+ * {@link ThreadLocalRandom} instead of {@link UUID#randomUUID()}, so rejecting a bad request costs no more than
+ * accepting it.
+ */
 @Getter
 public class KnownException extends RuntimeException {
     private final String message;
@@ -16,11 +22,19 @@ public class KnownException extends RuntimeException {
     private final HttpStatus responseCode;
 
     public KnownException(String message, HttpStatus responseCode) {
-        this(message, responseCode, UUID.randomUUID());
+        this(message, responseCode, newErrorId());
     }
     public KnownException(String message, HttpStatus responseCode, UUID errorId) {
+        super(message, null, false, false);
         this.message = message;
         this.responseCode = responseCode;
         this.errorId = errorId;
     }
+
+    static UUID newErrorId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSignificantBits = (random.nextLong() & ~0xf000L) | 0x4000L; // version 4
+        long leastSignificantBits = (random.nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L; // IETF variant
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
 }
@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.exceptions;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import tech.wajs.reward.dto.ViolationDTO;
+
+import java.util.List;
+
+/**
+ * Every violation found by a collect-all validation pass, in input order.
+ */
+@Getter
+public class ValidationException extends KnownException {
+    private final List<ViolationDTO> violations;
+
+    public ValidationException(List<ViolationDTO> violations) {
+        super(violations.size() + " of the transactions are invalid.", HttpStatus.UNPROCESSABLE_ENTITY);
+        this.violations = violations;
+    }
+}
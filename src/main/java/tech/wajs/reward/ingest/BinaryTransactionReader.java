@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.ingest;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import tech.wajs.reward.exceptions.KnownException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Decodes the {@value #MEDIA_TYPE_VALUE} request encoding: fixed-width little-endian records of epoch second
+ * (int64) and cost in cents (int64), each optionally preceded by a customer id (int64) when the content type has
+ * the parameter {@code customer-id=true}. Records are decoded straight from one reused buffer into primitives.
+ */
+public final class BinaryTransactionReader {
+    public static final String MEDIA_TYPE_VALUE = "application/x-reward-transactions";
+    public static final String CUSTOMER_ID_PARAMETER = "customer-id";
+    public static final int RECORD_SIZE = 16;
+    public static final int CUSTOMER_RECORD_SIZE = 24;
+    public static final long NO_CUSTOMER = -1;
+
+    private static final int BUFFER_RECORDS = 4096;
+
+    private BinaryTransactionReader() {
+    }
+
+    public static boolean hasCustomerId(MediaType contentType) {
+        return contentType != null && "true".equalsIgnoreCase(contentType.getParameter(CUSTOMER_ID_PARAMETER));
+    }
+
+    /**
+     * @return number of records read
+     */
+    public static long read(InputStream body, boolean withCustomerId, RecordConsumer consumer) throws IOException {
+        int recordSize = withCustomerId ? CUSTOMER_RECORD_SIZE : RECORD_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate(recordSize * BUFFER_RECORDS).order(ByteOrder.LITTLE_ENDIAN);
+        ReadableByteChannel channel = Channels.newChannel(body);
+        long count = 0;
+        while (channel.read(buffer) >= 0) {
+            buffer.flip();
+            while (buffer.remaining() >= recordSize) {
+                long customerId = withCustomerId ? buffer.getLong() : NO_CUSTOMER;
+                consumer.accept(customerId, buffer.getLong(), buffer.getLong());
+                count++;
+            }
+            buffer.compact();
+        }
+        if (buffer.position() != 0) {
+            throw new KnownException("Request body must consist of whole " + recordSize + "-byte records.",
+                    HttpStatus.BAD_REQUEST);
+        }
+        return count;
+    }
+
+    @FunctionalInterface
+    public interface RecordConsumer {
+        void accept(long customerId, long epochSecond, long cents);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.ingest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import tech.wajs.reward.dto.CustomerTransactionsDTO;
+import tech.wajs.reward.dto.TransactionDTO;
+import tech.wajs.reward.exceptions.KnownException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Reads a JSON array token by token and hands every element to the consumer as soon as it is parsed, so the
+ * whole list is never held in memory.
+ */
+@Component
+public class TransactionStreamReader {
+    private final ObjectReader transactionReader;
+    private final ObjectReader customerReader;
+
+    public TransactionStreamReader(ObjectMapper objectMapper) {
+        this.transactionReader = objectMapper.readerFor(TransactionDTO.class);
+        this.customerReader = objectMapper.readerFor(CustomerTransactionsDTO.class);
+    }
+
+    public long read(InputStream json, Consumer<TransactionDTO> consumer) throws IOException {
+        return readArray(transactionReader, json, consumer);
+    }
+
+    /**
+     * Reads the start of a JSON array of customers up to its first element, so that an empty array is known
+     * before any result is written.
+     *
+     * @return parser on the first element, or on the end of an empty array, to be passed to
+     * {@link #readCustomers(JsonParser, Consumer)}
+     */
+    public JsonParser openCustomers(InputStream json) throws IOException {
+        JsonParser parser = customerReader.createParser(json);
+        try {
+            startArray(parser);
+            parser.nextToken();
+            return parser;
+        } catch (IOException | RuntimeException e) {
+            parser.close();
+            throw e;
+        }
+    }
+
+    public long readCustomers(JsonParser parser, Consumer<CustomerTransactionsDTO> consumer) throws IOException {
+        try (parser) {
+            return readElements(customerReader, parser, consumer);
+        }
+    }
+
+    private <T> long readArray(ObjectReader elementReader, InputStream json, Consumer<T> consumer)
+            throws IOException {
+        try (JsonParser parser = elementReader.createParser(json)) {
+            startArray(parser);
+            parser.nextToken();
+            return readElements(elementReader, parser, consumer);
+        }
+    }
+
+    private static void startArray(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new KnownException("Request body must be a JSON array.", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private static <T> long readElements(ObjectReader elementReader, JsonParser parser, Consumer<T> consumer)
+            throws IOException {
+        long count = 0;
+        while (parser.currentToken() == JsonToken.START_OBJECT) {
+            consumer.accept(elementReader.readValue(parser));
+            count++;
+            parser.nextToken();
+        }
+        if (parser.currentToken() != JsonToken.END_ARRAY) {
+            throw new KnownException("Request body must be a JSON array.", HttpStatus.BAD_REQUEST);
+        }
+        return count;
+    }
+}
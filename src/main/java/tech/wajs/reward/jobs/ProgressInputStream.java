@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.jobs;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Publishes the number of bytes read so far as the progress of a job.
+ */
+class ProgressInputStream extends FilterInputStream {
+    private final RewardJob job;
+    private long read;
+
+    ProgressInputStream(InputStream in, RewardJob job) {
+        super(in);
+        this.job = job;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            advance(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            advance(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        advance(skipped);
+        return skipped;
+    }
+
+    private void advance(long bytes) {
+        read += bytes;
+        job.processedBytes = read;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.jobs;
+
+import tech.wajs.reward.dto.RewardDTO;
+import tech.wajs.reward.dto.RewardJobDTO;
+import tech.wajs.reward.enums.JobStatus;
+import tech.wajs.reward.exceptions.KnownException;
+import tech.wajs.reward.programs.RewardProgram;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * State of one submitted calculation. Only the worker running the job writes it; pollers read the volatile
+ * fields.
+ */
+class RewardJob {
+    final String id;
+    final Path body;
+    final long totalBytes;
+    final RewardProgram program;
+
+    volatile JobStatus status = JobStatus.QUEUED;
+    volatile long processedBytes;
+    volatile RewardDTO reward;
+    volatile KnownException error;
+    volatile Instant finishedAt;
+
+    RewardJob(String id, Path body, long totalBytes, RewardProgram program) {
+        this.id = id;
+        this.body = body;
+        this.totalBytes = totalBytes;
+        this.program = program;
+    }
+
+    RewardJobDTO toDTO() {
+        KnownException failure = error;
+        return new RewardJobDTO(id, status, processedBytes, totalBytes, reward,
+                failure == null ? null : failure.getMessage(),
+                failure == null ? null : failure.getErrorId().toString());
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.jobs;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import tech.wajs.reward.dto.RewardDTO;
+import tech.wajs.reward.dto.RewardJobDTO;
+import tech.wajs.reward.enums.JobStatus;
+import tech.wajs.reward.exceptions.KnownException;
+import tech.wajs.reward.programs.RewardProgram;
+import tech.wajs.reward.service.RewardService;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs reward calculations too large for one request. The body is spooled to a file in
+ * {@code reward.jobs.directory} and calculated later by one of {@code reward.jobs.workers} threads; at most
+ * {@code reward.jobs.queue-capacity} jobs wait for a worker. A job takes its place before its body is spooled, so a
+ * full queue is answered without reading the upload. Finished jobs are kept for {@code reward.jobs.ttl}.
+ */
+@Service
+@Slf4j
+public class RewardJobService {
+    private final Map<String, RewardJob> jobs = new ConcurrentHashMap<>();
+    private final RewardService rewardService;
+    private final Clock clock;
+    private final ThreadPoolExecutor workers;
+    private final Semaphore slots;
+    private final Duration ttl;
+    private final Path directory;
+
+    public RewardJobService(RewardService rewardService,
+                            Clock clock,
+                            @Value("${reward.jobs.workers:2}") int workers,
+                            @Value("${reward.jobs.queue-capacity:16}") int queueCapacity,
+                            @Value("${reward.jobs.ttl:PT1H}") Duration ttl,
+                            @Value("${reward.jobs.directory:}") String directory) {
+        this.rewardService = rewardService;
+        this.clock = clock;
+        this.ttl = ttl;
+        this.directory = Path.of(StringUtils.hasText(directory) ? directory : System.getProperty("java.io.tmpdir"));
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "reward-job-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.slots = new Semaphore(workers + queueCapacity);
+    }
+
+    public RewardJobDTO submit(InputStream json, RewardProgram program) throws IOException {
+        if (!slots.tryAcquire()) {
+            throw tooManyJobs();
+        }
+        boolean submitted = false;
+        Path body = null;
+        try {
+            Files.createDirectories(directory);
+            body = Files.createTempFile(directory, "reward-job-", ".json");
+            long size = Files.copy(json, body, StandardCopyOption.REPLACE_EXISTING);
+            RewardJob job = new RewardJob(UUID.randomUUID().toString(), body, size, program);
+            jobs.put(job.id, job);
+            try {
+                workers.execute(() -> run(job));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(job.id);
+                throw tooManyJobs();
+            }
+            submitted = true;
+            return job.toDTO();
+        } catch (IOException | RuntimeException e) {
+            if (body != null) {
+                Files.deleteIfExists(body);
+            }
+            throw e;
+        } finally {
+            if (!submitted) {
+                slots.release();
+            }
+        }
+    }
+
+    public RewardJobDTO getJob(String id) {
+        return find(id).toDTO();
+    }
+
+    /**
+     * @throws KnownException the error of a failed job, or {@link HttpStatus#CONFLICT} if it is still running
+     */
+    public RewardDTO getResult(String id) {
+        RewardJob job = find(id);
+        return switch (job.status) {
+            case DONE -> job.reward;
+            case FAILED -> throw job.error;
+            default -> throw new KnownException("Reward job is not finished.", HttpStatus.CONFLICT);
+        };
+    }
+
+    @Scheduled(fixedDelayString = "${reward.jobs.cleanup-interval:PT1M}")
+    void removeExpired() {
+        Instant now = clock.instant();
+        jobs.values().removeIf(job -> job.finishedAt != null && !now.isBefore(job.finishedAt.plus(ttl)));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private static KnownException tooManyJobs() {
+        return new KnownException("Too many reward jobs are waiting, try again later.",
+                HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private RewardJob find(String id) {
+        RewardJob job = jobs.get(id);
+        if (job == null) {
+            throw new KnownException("Reward job not found.", HttpStatus.NOT_FOUND);
+        }
+        return job;
+    }
+
+    private void run(RewardJob job) {
+        job.status = JobStatus.RUNNING;
+        try (InputStream in = new ProgressInputStream(new BufferedInputStream(Files.newInputStream(job.body)), job)) {
+            job.reward = rewardService.calculateReward(in, job.program);
+            job.status = JobStatus.DONE;
+        } catch (KnownException e) {
+            job.error = e;
+            job.status = JobStatus.FAILED;
+        } catch (IOException | RuntimeException e) {
+            KnownException error = new KnownException("Internal error.", HttpStatus.INTERNAL_SERVER_ERROR);
+            log.error("Reward job failed: jobId={} errorId={}", job.id, error.getErrorId(), e);
+            job.error = error;
+            job.status = JobStatus.FAILED;
+        } finally {
+            job.finishedAt = clock.instant();
+            try {
+                Files.deleteIfExists(job.body);
+            } catch (IOException e) {
+                log.warn("Can not delete body of reward job {}.", job.id, e);
+            }
+            slots.release();
+        }
+    }
+}
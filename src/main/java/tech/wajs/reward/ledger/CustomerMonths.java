@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.ledger;
+
+import org.springframework.http.HttpStatus;
+import tech.wajs.reward.exceptions.KnownException;
+import tech.wajs.reward.service.MonthlyPointsAccumulator;
+import tech.wajs.reward.validators.RewardValidators;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Points of one customer for the months that can still hold valid transactions, kept in a ring indexed by
+ * month. A new month reuses the slot of the month that fell out of the window.
+ */
+class CustomerMonths {
+    static final int MONTHS = RewardValidators.MAX_AGE_IN_MONTHS + 1;
+    static final String OUTSIDE_WINDOW = "Transaction month is outside of the ledger window.";
+    private static final long NO_MONTH = Long.MIN_VALUE;
+
+    private final long[] months = new long[MONTHS];
+    private final long[] points = new long[MONTHS];
+    private final int[] transactions = new int[MONTHS];
+
+    CustomerMonths() {
+        Arrays.fill(months, NO_MONTH);
+    }
+
+    synchronized void add(long month, long points, int transactions) {
+        int slot = (int) Math.floorMod(month, MONTHS);
+        if (months[slot] != month) {
+            if (months[slot] > month) {
+                throw new KnownException(OUTSIDE_WINDOW, HttpStatus.UNPROCESSABLE_ENTITY);
+            }
+            months[slot] = month;
+            this.points[slot] = 0;
+            this.transactions[slot] = 0;
+        }
+        this.points[slot] += points;
+        this.transactions[slot] += transactions;
+    }
+
+    /**
+     * @return whether {@link #add} would take the given months in this order
+     */
+    synchronized boolean accepts(long... newMonths) {
+        long[] slots = months.clone();
+        for (long month : newMonths) {
+            int slot = (int) Math.floorMod(month, MONTHS);
+            if (slots[slot] > month) {
+                return false;
+            }
+            slots[slot] = month;
+        }
+        return true;
+    }
+
+    synchronized MonthlyPointsAccumulator toAccumulator(long currentMonth) {
+        MonthlyPointsAccumulator accumulator = new MonthlyPointsAccumulator();
+        for (int slot = 0; slot < MONTHS; slot++) {
+            if (transactions[slot] > 0 && months[slot] > currentMonth - MONTHS && months[slot] <= currentMonth) {
+                accumulator.add(months[slot], points[slot], transactions[slot]);
+            }
+        }
+        return accumulator;
+    }
+
+    synchronized CustomerMonths copy() {
+        CustomerMonths copy = new CustomerMonths();
+        System.arraycopy(months, 0, copy.months, 0, MONTHS);
+        System.arraycopy(points, 0, copy.points, 0, MONTHS);
+        System.arraycopy(transactions, 0, copy.transactions, 0, MONTHS);
+        return copy;
+    }
+
+    synchronized void writeTo(DataOutput output) throws IOException {
+        for (int slot = 0; slot < MONTHS; slot++) {
+            output.writeLong(months[slot]);
+            output.writeLong(points[slot]);
+            output.writeInt(transactions[slot]);
+        }
+    }
+
+    static CustomerMonths readFrom(DataInput input) throws IOException {
+        CustomerMonths customerMonths = new CustomerMonths();
+        for (int slot = 0; slot < MONTHS; slot++) {
+            customerMonths.months[slot] = input.readLong();
+            customerMonths.points[slot] = input.readLong();
+            customerMonths.transactions[slot] = input.readInt();
+        }
+        return customerMonths;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.ledger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+
+/**
+ * Binary file with the monthly points of every customer and the first transaction log generation not included
+ * in it. A new snapshot is written next to the old one and moved over it, so a crash while saving leaves the
+ * previous snapshot intact.
+ */
+class LedgerSnapshot {
+    private static final int MAGIC = 0x52574c32; // "RWL2"
+    private static final String FILE_NAME = "ledger.snapshot";
+
+    private final Path file;
+
+    LedgerSnapshot(Path directory) {
+        this.file = directory.resolve(FILE_NAME);
+    }
+
+    /**
+     * @return first log generation to replay on top of the snapshot
+     */
+    long load(Map<Long, CustomerMonths> customers) throws IOException {
+        if (Files.notExists(file)) {
+            return 0;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != CustomerMonths.MONTHS) {
+                throw new IOException("Unsupported ledger snapshot: " + file);
+            }
+            long logGeneration = input.readLong();
+            long count = input.readLong();
+            for (long i = 0; i < count; i++) {
+                long customerId = input.readLong();
+                customers.put(customerId, CustomerMonths.readFrom(input));
+            }
+            return logGeneration;
+        }
+    }
+
+    void save(Map<Long, CustomerMonths> customers, long logGeneration) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temporary = file.resolveSibling(FILE_NAME + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(CustomerMonths.MONTHS);
+            output.writeLong(logGeneration);
+            output.writeLong(customers.size());
+            for (Map.Entry<Long, CustomerMonths> customer : customers.entrySet()) {
+                output.writeLong(customer.getKey());
+                customer.getValue().writeTo(output);
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tech.wajs.reward.dto.RewardDTO;
+import tech.wajs.reward.dto.TransactionDTO;
+import tech.wajs.reward.exceptions.KnownException;
+import tech.wajs.reward.service.MonthBoundaries;
+import tech.wajs.reward.service.MonthlyPointsAccumulator;
+import tech.wajs.reward.service.RewardService;
+import tech.wajs.reward.validators.RewardValidators;
+import tech.wajs.reward.validators.ValidationContext;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-customer monthly point totals updated with new transactions only, so the cost of a call does not depend
+ * on the length of the customer's history.
+ * <p>
+ * Every accepted transaction is appended to the {@link TransactionLog} before it is applied. Snapshots are taken
+ * every {@code reward.ledger.snapshot-interval}; taking one starts a new log generation and drops the older
+ * ones. On startup the last snapshot is loaded and the remaining log generations are replayed on top of it.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(prefix = "reward.ledger", name = "enabled", havingValue = "true")
+public class RewardLedger {
+    private final Map<Long, CustomerMonths> customers = new ConcurrentHashMap<>();
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    private final RewardService rewardService;
+    private final RewardValidators validator;
+    private final LedgerSnapshot snapshot;
+    private final TransactionLog transactionLog;
+
+    public RewardLedger(RewardService rewardService,
+                        RewardValidators validator,
+                        @Value("${reward.ledger.directory:ledger}") Path directory) {
+        this.rewardService = rewardService;
+        this.validator = validator;
+        this.snapshot = new LedgerSnapshot(directory);
+        this.transactionLog = new TransactionLog(directory);
+    }
+
+    public RewardDTO addTransactions(long customerId, List<TransactionDTO> transactions) {
+        validator.validate(transactions, RewardValidators.EMPTY_LIST);
+        ValidationContext context = rewardService.validationContext();
+        long firstMonth = currentMonth(context.getCurrentMonth()) - CustomerMonths.MONTHS + 1;
+        long[] points = new long[transactions.size()];
+        long[] months = new long[transactions.size()];
+        for (int i = 0; i < transactions.size(); i++) {
+            TransactionDTO transaction = transactions.get(i);
+            points[i] = rewardService.calculatePoints(transaction, context);
+            validator.validate(transaction, context.getFutureMonth());
+            months[i] = MonthlyPointsAccumulator.monthIndex(transaction.getTime());
+            if (months[i] < firstMonth) {
+                throw new KnownException(CustomerMonths.OUTSIDE_WINDOW, HttpStatus.UNPROCESSABLE_ENTITY);
+            }
+        }
+
+        CustomerMonths customerMonths = customers.get(customerId);
+        if (customerMonths == null) {
+            // a rejected request must not leave an empty customer behind
+            if (!new CustomerMonths().accepts(months)) {
+                throw new KnownException(CustomerMonths.OUTSIDE_WINDOW, HttpStatus.UNPROCESSABLE_ENTITY);
+            }
+            customerMonths = customers.computeIfAbsent(customerId, id -> new CustomerMonths());
+        }
+        snapshotLock.readLock().lock();
+        try {
+            synchronized (customerMonths) {
+                if (!customerMonths.accepts(months)) {
+                    throw new KnownException(CustomerMonths.OUTSIDE_WINDOW, HttpStatus.UNPROCESSABLE_ENTITY);
+                }
+                for (int i = 0; i < points.length; i++) {
+                    TransactionDTO transaction = transactions.get(i);
+                    transactionLog.append(customerId,
+                            transaction.getTime().toEpochSecond(),
+                            transaction.getTime().getOffset().getTotalSeconds(),
+                            RewardService.toCents(transaction.getCost()));
+                    customerMonths.add(months[i], points[i], 1);
+                }
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        return toReward(customerMonths, context.getCurrentMonth());
+    }
+
+    public RewardDTO getReward(long customerId) {
+        CustomerMonths customerMonths = customers.get(customerId);
+        if (customerMonths == null) {
+            throw new KnownException("Customer not found.", HttpStatus.NOT_FOUND);
+        }
+        return toReward(customerMonths, rewardService.validationContext().getCurrentMonth());
+    }
+
+    @PostConstruct
+    void load() throws IOException {
+        long logGeneration = snapshot.load(customers);
+        YearMonth currentMonth = rewardService.validationContext().getCurrentMonth();
+        MonthBoundaries months = MonthBoundaries.around(currentMonth, RewardValidators.MAX_AGE_IN_MONTHS);
+        long firstMonth = currentMonth(currentMonth) - CustomerMonths.MONTHS + 1;
+        long[] replayed = {0, 0};
+        long nextGeneration = transactionLog.replay(logGeneration, (customerId, epochSecond, offset, cents) -> {
+            long month = months.monthIndex(epochSecond, offset);
+            CustomerMonths customerMonths = month < firstMonth ? null
+                    : customers.computeIfAbsent(customerId, id -> new CustomerMonths());
+            if (customerMonths == null || !customerMonths.accepts(month)) {
+                replayed[1]++;
+                return;
+            }
+            customerMonths.add(month, rewardService.calculatePoints(cents), 1);
+            replayed[0]++;
+        });
+        transactionLog.open(nextGeneration);
+        log.info("Loaded ledger with {} customers, replayed {} logged transactions, skipped {} outside of the window.",
+                customers.size(), replayed[0], replayed[1]);
+    }
+
+    @Scheduled(fixedDelayString = "${reward.ledger.snapshot-interval:PT1M}",
+            initialDelayString = "${reward.ledger.snapshot-interval:PT1M}")
+    void saveSnapshot() throws IOException {
+        Map<Long, CustomerMonths> copy = new HashMap<>(customers.size());
+        long logGeneration;
+        snapshotLock.writeLock().lock();
+        try {
+            customers.forEach((customerId, customerMonths) -> copy.put(customerId, customerMonths.copy()));
+            logGeneration = transactionLog.rotate();
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+        snapshot.save(copy, logGeneration);
+        transactionLog.deleteBefore(logGeneration);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        saveSnapshot();
+        transactionLog.close();
+    }
+
+    private RewardDTO toReward(CustomerMonths customerMonths, YearMonth currentMonth) {
+        return customerMonths.toAccumulator(currentMonth(currentMonth)).toReward();
+    }
+
+    private static long currentMonth(YearMonth currentMonth) {
+        return MonthlyPointsAccumulator.monthIndex(currentMonth.getYear(), currentMonth.getMonthValue());
+    }
+}
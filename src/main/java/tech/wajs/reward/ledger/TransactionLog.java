@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of accepted transactions, written through memory-mapped chunks of a {@link FileChannel}.
+ * Every record has a fixed width: customer id, epoch second, cost in cents, UTC offset in seconds and a
+ * checksum. The file is grown chunk by chunk and the unwritten tail stays zeroed, so replay stops at the first
+ * record whose checksum does not match - either the end of the log or a record torn by a crash.
+ * <p>
+ * The log is split into generations, one file each. A snapshot records the generation started right after it
+ * was taken, so older generations can be deleted once the snapshot is on disk.
+ */
+class TransactionLog implements Closeable {
+    static final int RECORD_SIZE = 32;
+    private static final int MAGIC = 0x52574c47; // "RWLG"
+    private static final long CHUNK_SIZE = 64L << 20;
+    private static final String PREFIX = "transactions-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final long chunkSize;
+    private long generation;
+    private FileChannel channel;
+    private MappedByteBuffer chunk;
+    private long chunkStart;
+
+    TransactionLog(Path directory) {
+        this(directory, CHUNK_SIZE);
+    }
+
+    TransactionLog(Path directory, long chunkSize) {
+        this.directory = directory;
+        this.chunkSize = chunkSize - chunkSize % RECORD_SIZE;
+    }
+
+    @FunctionalInterface
+    interface RecordConsumer {
+        void accept(long customerId, long epochSecond, int offsetSeconds, long costInCents);
+    }
+
+    /**
+     * Replays every valid record of generations from {@code fromGeneration} on, in order.
+     *
+     * @return generation to open for new records
+     */
+    long replay(long fromGeneration, RecordConsumer consumer) throws IOException {
+        long lastGeneration = fromGeneration - 1;
+        for (Path file : files()) {
+            long fileGeneration = generation(file);
+            if (fileGeneration >= fromGeneration) {
+                replayFile(file, consumer);
+                lastGeneration = fileGeneration;
+            }
+        }
+        return lastGeneration + 1;
+    }
+
+    synchronized void open(long generation) throws IOException {
+        Files.createDirectories(directory);
+        this.generation = generation;
+        this.channel = FileChannel.open(file(generation),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.chunkStart = -chunkSize;
+        mapNextChunk();
+    }
+
+    synchronized void append(long customerId, long epochSecond, int offsetSeconds, long costInCents) {
+        while (chunk.remaining() < RECORD_SIZE) {
+            mapNextChunk();
+        }
+        chunk.putLong(customerId)
+             .putLong(epochSecond)
+             .putLong(costInCents)
+             .putInt(offsetSeconds)
+             .putInt(checksum(customerId, epochSecond, offsetSeconds, costInCents));
+    }
+
+    /**
+     * Closes the current generation and starts the next one.
+     *
+     * @return the new generation
+     */
+    synchronized long rotate() throws IOException {
+        close();
+        open(generation + 1);
+        return generation;
+    }
+
+    void deleteBefore(long generation) throws IOException {
+        for (Path file : files()) {
+            if (generation(file) < generation) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            chunk.force();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void mapNextChunk() {
+        try {
+            if (chunk != null) {
+                chunk.force();
+            }
+            chunkStart += chunkSize;
+            chunk = channel.map(FileChannel.MapMode.READ_WRITE, chunkStart, chunkSize);
+            skipWrittenRecords(chunk);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void replayFile(Path file, RecordConsumer consumer) throws IOException {
+        try (FileChannel readChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = readChannel.size();
+            for (long start = 0; start < size; start += chunkSize) {
+                MappedByteBuffer records = readChannel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(chunkSize, size - start));
+                while (records.remaining() >= RECORD_SIZE) {
+                    long customerId = records.getLong();
+                    long epochSecond = records.getLong();
+                    long costInCents = records.getLong();
+                    int offsetSeconds = records.getInt();
+                    if (records.getInt() != checksum(customerId, epochSecond, offsetSeconds, costInCents)) {
+                        return;
+                    }
+                    consumer.accept(customerId, epochSecond, offsetSeconds, costInCents);
+                }
+            }
+        }
+    }
+
+    private static void skipWrittenRecords(MappedByteBuffer records) {
+        while (records.remaining() >= RECORD_SIZE) {
+            int position = records.position();
+            if (records.getInt(position + RECORD_SIZE - Integer.BYTES) != checksum(records.getLong(position),
+                    records.getLong(position + 8), records.getInt(position + 24), records.getLong(position + 16))) {
+                return;
+            }
+            records.position(position + RECORD_SIZE);
+        }
+    }
+
+    static int checksum(long customerId, long epochSecond, int offsetSeconds, long costInCents) {
+        long hash = customerId * 0x9E3779B97F4A7C15L
+                ^ epochSecond * 0xC2B2AE3D27D4EB4FL
+                ^ costInCents * 0x165667B19E3779F9L
+                ^ offsetSeconds;
+        return (int) (hash ^ (hash >>> 32)) ^ MAGIC;
+    }
+
+    private List<Path> files() throws IOException {
+        if (Files.notExists(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(PREFIX))
+                        .filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                        .sorted()
+                        .toList();
+        }
+    }
+
+    private Path file(long generation) {
+        return directory.resolve(PREFIX + "%020d".formatted(generation) + SUFFIX);
+    }
+
+    private static long generation(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
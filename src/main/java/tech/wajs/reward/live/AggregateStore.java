@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.live;
+
+import tech.wajs.reward.service.MonthlyPointsAccumulator;
+
+/**
+ * Monthly points and transaction counts per customer, safe for concurrent writers and readers.
+ */
+public interface AggregateStore {
+
+    /**
+     * @return points of the customer's month after the addition, {@code -1} if the month is no longer kept
+     */
+    long add(long customerId, long month, long points, long transactions);
+
+    /**
+     * Makes room for the customer, so that a later {@link #add} can not fail for lack of space. A customer without
+     * points stays unknown to {@link #get}.
+     *
+     * @return {@code false} if the store is full and the customer is new
+     */
+    default boolean reserve(long customerId) {
+        return true;
+    }
+
+    /**
+     * @return points of months from {@code firstMonth} to {@code lastMonth}, {@code null} for an unknown customer
+     */
+    MonthlyPointsAccumulator get(long customerId, long firstMonth, long lastMonth);
+
+    /**
+     * Drops months before {@code month}. A store that overwrites months in place may keep them until then.
+     */
+    void removeMonthsBefore(long month);
+
+    /**
+     * Passes the points of {@code month} of every customer with a transaction in it, one customer at a time.
+     */
+    void forEachMonth(long month, MonthPointsConsumer consumer);
+
+    int size();
+
+    interface MonthPointsConsumer {
+        void accept(long customerId, long points);
+    }
+}
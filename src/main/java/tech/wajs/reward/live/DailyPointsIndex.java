@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.live;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Points per customer and local day, kept in a Fenwick tree over the last {@code windowDays} days, so adding a
+ * day and summing any range of days both take O(log n). A customer's tree covers {@code windowDays} plus
+ * {@value #SLACK_DAYS} days; a day past its end moves the start forward and rebuilds the tree, which happens
+ * about once a month per active customer. Days before the start are dropped, and a customer without points
+ * since a given day is dropped as a whole by {@link #removeCustomersIdleBefore}.
+ */
+class DailyPointsIndex {
+    private static final int SLACK_DAYS = 31;
+
+    private final Map<Long, CustomerDays> customers = new ConcurrentHashMap<>();
+    private final int windowDays;
+
+    DailyPointsIndex(int windowDays) {
+        this.windowDays = windowDays;
+    }
+
+    void add(long customerId, long epochDay, long points) {
+        customers.compute(customerId, (id, days) -> {
+            CustomerDays customerDays = days == null
+                    ? new CustomerDays(epochDay - windowDays, windowDays + SLACK_DAYS)
+                    : days;
+            customerDays.add(epochDay, points, windowDays);
+            return customerDays;
+        });
+    }
+
+    /**
+     * Drops customers whose last day with points is before {@code epochDay}.
+     */
+    void removeCustomersIdleBefore(long epochDay) {
+        customers.keySet().forEach(customerId -> customers.computeIfPresent(customerId,
+                (id, days) -> days.lastDay() < epochDay ? null : days));
+    }
+
+    int size() {
+        return customers.size();
+    }
+
+    boolean contains(long customerId) {
+        return customers.containsKey(customerId);
+    }
+
+    /**
+     * @return points of days from {@code fromDay} to {@code toDay}, both inclusive
+     */
+    long sum(long customerId, long fromDay, long toDay) {
+        CustomerDays days = customers.get(customerId);
+        return days == null ? 0 : days.sum(fromDay, toDay);
+    }
+
+    private static class CustomerDays {
+        private long firstDay;
+        private long lastDay = Long.MIN_VALUE;
+        private long[] tree;
+
+        CustomerDays(long firstDay, int days) {
+            this.firstDay = firstDay;
+            this.tree = new long[days + 1];
+        }
+
+        synchronized void add(long epochDay, long points, int windowDays) {
+            if (epochDay < firstDay) {
+                return;
+            }
+            lastDay = Math.max(lastDay, epochDay);
+            if (epochDay - firstDay >= tree.length - 1) {
+                rebase(epochDay - windowDays);
+            }
+            for (int i = (int) (epochDay - firstDay) + 1; i < tree.length; i += i & -i) {
+                tree[i] += points;
+            }
+        }
+
+        synchronized long lastDay() {
+            return lastDay;
+        }
+
+        synchronized long sum(long fromDay, long toDay) {
+            long from = Math.max(fromDay, firstDay) - firstDay;
+            long to = Math.min(toDay, firstDay + tree.length - 2) - firstDay;
+            if (from > to) {
+                return 0;
+            }
+            return prefix((int) to + 1) - prefix((int) from);
+        }
+
+        private long prefix(int days) {
+            long sum = 0;
+            for (int i = days; i > 0; i -= i & -i) {
+                sum += tree[i];
+            }
+            return sum;
+        }
+
+        private void rebase(long newFirstDay) {
+            long[] rebuilt = new long[tree.length];
+            int shift = (int) Math.min(newFirstDay - firstDay, tree.length);
+            for (int day = shift; day < tree.length - 1; day++) {
+                rebuilt[day - shift + 1] = prefix(day + 1) - prefix(day);
+            }
+            for (int i = 1; i < rebuilt.length; i++) {
+                int parent = i + (i & -i);
+                if (parent < rebuilt.length) {
+                    rebuilt[parent] += rebuilt[i];
+                }
+            }
+            tree = rebuilt;
+            firstDay = newFirstDay;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.live;
+
+import tech.wajs.reward.dto.LeaderboardEntryDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code size} customers with most points in the current month, kept in a min-heap indexed by customer.
+ * Month points only grow, so offering every new total keeps the heap exact: a customer outside of it enters by
+ * replacing the root once its total beats the smallest one; a total lower than the one already kept is a stale
+ * read and is ignored. A total for a later month starts a new board.
+ * Reads reuse a sorted copy until the next change.
+ */
+class Leaderboard {
+    private static final Comparator<LeaderboardEntryDTO> RANKING =
+            Comparator.comparing(LeaderboardEntryDTO::getPoints).reversed()
+                      .thenComparing(LeaderboardEntryDTO::getCustomerId);
+
+    private final int size;
+    private final long[] customers;
+    private final long[] points;
+    private final Map<Long, Integer> positions;
+    private int count;
+    private long month = Long.MIN_VALUE;
+    private List<LeaderboardEntryDTO> ranking = List.of();
+    private boolean changed;
+
+    Leaderboard(int size) {
+        this.size = size;
+        this.customers = new long[size];
+        this.points = new long[size];
+        this.positions = new HashMap<>(size * 2);
+    }
+
+    synchronized void offer(long customerId, long month, long monthPoints) {
+        if (month < this.month || size == 0) {
+            return;
+        }
+        if (month > this.month) {
+            this.month = month;
+            count = 0;
+            positions.clear();
+            changed = true;
+        }
+        Integer position = positions.get(customerId);
+        if (position != null) {
+            if (monthPoints <= points[position]) {
+                return;
+            }
+            points[position] = monthPoints;
+            siftDown(position);
+        } else if (count < size) {
+            customers[count] = customerId;
+            points[count] = monthPoints;
+            positions.put(customerId, count);
+            siftUp(count++);
+        } else if (monthPoints > points[0] || monthPoints == points[0] && customerId < customers[0]) {
+            positions.remove(customers[0]);
+            customers[0] = customerId;
+            points[0] = monthPoints;
+            positions.put(customerId, 0);
+            siftDown(0);
+        } else {
+            return;
+        }
+        changed = true;
+    }
+
+    /**
+     * @return up to {@code limit} customers with most points in {@code month}, best first
+     */
+    synchronized List<LeaderboardEntryDTO> top(long month, int limit) {
+        if (month != this.month) {
+            return List.of();
+        }
+        if (changed) {
+            LeaderboardEntryDTO[] entries = new LeaderboardEntryDTO[count];
+            for (int i = 0; i < count; i++) {
+                // one customer past the int range must not fail the ranking of everyone else
+                int entryPoints = (int) Math.min(points[i], Integer.MAX_VALUE);
+                entries[i] = new LeaderboardEntryDTO(0, customers[i], entryPoints);
+            }
+            Arrays.sort(entries, RANKING);
+            List<LeaderboardEntryDTO> ranked = new ArrayList<>(count);
+            for (int i = 0; i < entries.length; i++) {
+                ranked.add(new LeaderboardEntryDTO(i + 1, entries[i].getCustomerId(), entries[i].getPoints()));
+            }
+            ranking = ranked;
+            changed = false;
+        }
+        return ranking.subList(0, Math.min(limit, ranking.size()));
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (!less(position, parent)) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            if (left < count && less(left, smallest)) {
+                smallest = left;
+            }
+            if (left + 1 < count && less(left + 1, smallest)) {
+                smallest = left + 1;
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    /**
+     * Lower points rank lower; on a tie the higher customer id does, so the root is the first to leave.
+     */
+    private boolean less(int first, int second) {
+        return points[first] < points[second]
+                || points[first] == points[second] && customers[first] > customers[second];
+    }
+
+    private void swap(int first, int second) {
+        long customer = customers[first];
+        long customerPoints = points[first];
+        customers[first] = customers[second];
+        points[first] = points[second];
+        customers[second] = customer;
+        points[second] = customerPoints;
+        positions.put(customers[first], first);
+        positions.put(customers[second], second);
+    }
+}
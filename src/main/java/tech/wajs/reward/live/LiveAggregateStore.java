@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.live;
+
+import tech.wajs.reward.service.MonthlyPointsAccumulator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monthly points per customer on the heap. The maps lock single bins only and the totals are {@link LongAdder}s,
+ * so reads and pruning do not hold back the drain that adds to them.
+ */
+class LiveAggregateStore implements AggregateStore {
+    private final Map<Long, Map<Long, MonthCell>> customers = new ConcurrentHashMap<>();
+
+    @Override
+    public long add(long customerId, long month, long points, long transactions) {
+        Map<Long, MonthCell> months = customers.get(customerId);
+        if (months == null) {
+            months = customers.computeIfAbsent(customerId, id -> new ConcurrentHashMap<>());
+        }
+        MonthCell cell = months.get(month);
+        if (cell == null) {
+            cell = months.computeIfAbsent(month, m -> new MonthCell());
+        }
+        cell.points.add(points);
+        cell.transactions.add(transactions);
+        return cell.points.sum();
+    }
+
+    @Override
+    public MonthlyPointsAccumulator get(long customerId, long firstMonth, long lastMonth) {
+        Map<Long, MonthCell> months = customers.get(customerId);
+        if (months == null) {
+            return null;
+        }
+        MonthlyPointsAccumulator accumulator = new MonthlyPointsAccumulator();
+        months.forEach((month, cell) -> {
+            long transactions = cell.transactions.sum();
+            if (month >= firstMonth && month <= lastMonth && transactions > 0) {
+                accumulator.add(month, cell.points.sum(), (int) transactions);
+            }
+        });
+        return accumulator;
+    }
+
+    @Override
+    public void removeMonthsBefore(long month) {
+        customers.values().forEach(months -> months.keySet().removeIf(m -> m < month));
+    }
+
+    @Override
+    public void forEachMonth(long month, MonthPointsConsumer consumer) {
+        customers.forEach((customerId, months) -> {
+            MonthCell cell = months.get(month);
+            if (cell != null && cell.transactions.sum() > 0) {
+                consumer.accept(customerId, cell.points.sum());
+            }
+        });
+    }
+
+    @Override
+    public int size() {
+        return customers.size();
+    }
+
+    private static class MonthCell {
+        private final LongAdder points = new LongAdder();
+        private final LongAdder transactions = new LongAdder();
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.live;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tech.wajs.reward.dto.PeriodRewardDTO;
+import tech.wajs.reward.dto.RewardDTO;
+import tech.wajs.reward.dedup.TransactionDeduplicator;
+import tech.wajs.reward.dto.LeaderboardEntryDTO;
+import tech.wajs.reward.dto.TransactionDTO;
+import tech.wajs.reward.enums.RollupPeriod;
+import tech.wajs.reward.exceptions.KnownException;
+import tech.wajs.reward.service.MonthlyPointsAccumulator;
+import tech.wajs.reward.service.RewardService;
+import tech.wajs.reward.validators.RewardValidators;
+import tech.wajs.reward.validators.ValidationContext;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.format.DateTimeParseException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single purchases pushed as they happen. A purchase is validated and priced on the request thread, then put on
+ * a lock-free queue; the queue is drained every {@code reward.live.drain-interval} in batches of
+ * {@code reward.live.batch-size}, summed per customer and month, and added to the {@link AggregateStore}.
+ * A reward read therefore does not see purchases that are still queued. A purchase with an id that the
+ * {@link TransactionDeduplicator} has already seen is accepted but not queued again.
+ * <p>
+ * The drain is a single thread. The scheduler has one thread per scheduled task
+ * ({@code spring.task.scheduling.pool.size}), so a slow ledger snapshot or job cleanup does not delay it.
+ * <p>
+ * Next to the monthly totals the drain keeps a {@link Leaderboard} of the customers with most points this month,
+ * seeded from the store on startup so a file-backed store keeps its ranking, and, with
+ * {@code reward.live.daily-index.enabled=true}, a {@link DailyPointsIndex}, which answers points for
+ * any range of days inside the reward window without going back to the purchases. The index is kept on the heap
+ * and only covers purchases drained since startup, whatever store holds the monthly totals.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(prefix = "reward.live", name = "enabled", havingValue = "true")
+public class LivePurchaseService {
+    private static final int MAX_DAYS_IN_MONTH = 31;
+
+    private final Queue<LivePurchase> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AggregateStore store;
+    private final TransactionDeduplicator deduplicator;
+    private final DailyPointsIndex dailyIndex;
+    private final Leaderboard leaderboard;
+    private final RewardService rewardService;
+    private final RewardValidators validator;
+    private final int queueCapacity;
+    private final int batchSize;
+
+    public LivePurchaseService(RewardService rewardService,
+                               RewardValidators validator,
+                               AggregateStore store,
+                               TransactionDeduplicator deduplicator,
+                               @Value("${reward.live.queue-capacity:1000000}") int queueCapacity,
+                               @Value("${reward.live.batch-size:10000}") int batchSize,
+                               @Value("${reward.live.leaderboard.size:1000}") int leaderboardSize,
+                               @Value("${reward.live.daily-index.enabled:false}") boolean dailyIndexEnabled) {
+        this.rewardService = rewardService;
+        this.validator = validator;
+        this.store = store;
+        this.deduplicator = deduplicator;
+        this.dailyIndex = dailyIndexEnabled ? new DailyPointsIndex(
+                (rewardService.validationContext().getMaxAgeInMonths() + 1) * MAX_DAYS_IN_MONTH) : null;
+        this.leaderboard = new Leaderboard(leaderboardSize);
+        long month = currentMonth(rewardService.validationContext());
+        store.forEachMonth(month, (customerId, points) -> leaderboard.offer(customerId, month, points));
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+    }
+
+    public void addPurchase(long customerId, TransactionDTO purchase) {
+        ValidationContext context = rewardService.validationContext();
+        long points = rewardService.calculatePoints(purchase, context);
+        validator.validate(purchase, context.getFutureMonth());
+        validator.validate(purchase, RewardValidators.ID_TOO_LONG);
+        reserveCustomer(customerId);
+
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            throw new KnownException("Too many purchases are waiting, try again later.",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        long month = MonthlyPointsAccumulator.monthIndex(purchase.getTime());
+        if (purchase.getId() != null && deduplicator.isDuplicate(customerId, purchase.getId(), month)) {
+            queued.decrementAndGet();
+            return;
+        }
+        queue.add(new LivePurchase(customerId, month, purchase.getTime().toLocalDate().toEpochDay(), points));
+    }
+
+    /**
+     * A purchase is only accepted when the store has room for its customer, so the drain never has to drop it.
+     */
+    private void reserveCustomer(long customerId) {
+        boolean reserved;
+        try {
+            reserved = store.reserve(customerId);
+        } catch (IllegalArgumentException e) {
+            throw new KnownException(e.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+        if (!reserved) {
+            throw new KnownException("Customer store is full, no new customers are accepted.",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    public RewardDTO getReward(long customerId) {
+        ValidationContext context = rewardService.validationContext();
+        long currentMonth = currentMonth(context);
+        MonthlyPointsAccumulator accumulator =
+                store.get(customerId, currentMonth - context.getMaxAgeInMonths(), currentMonth);
+        if (accumulator == null) {
+            throw new KnownException("Customer not found.", HttpStatus.NOT_FOUND);
+        }
+        return accumulator.toReward();
+    }
+
+    /**
+     * Points of the customer from {@code from} to {@code to}, both inclusive, summed per {@code period}. The range
+     * defaults to the reward window up to today; {@code last} (an ISO-8601 period such as {@code P30D}) sets
+     * {@code from} relative to {@code to} instead. No points are kept after today, so a later {@code to} is
+     * moved back to today.
+     */
+    public List<PeriodRewardDTO> getPoints(long customerId, LocalDate from, LocalDate to, String last,
+                                           RollupPeriod period) {
+        if (dailyIndex == null) {
+            throw new KnownException("Daily points are not kept, set reward.live.daily-index.enabled=true.",
+                    HttpStatus.NOT_FOUND);
+        }
+        if (from != null && last != null) {
+            throw new KnownException("Use either from or last, not both.", HttpStatus.BAD_REQUEST);
+        }
+        ValidationContext context = rewardService.validationContext();
+        LocalDate today = context.getNow().toLocalDate();
+        LocalDate windowStart = context.getNow().minusMonths(context.getMaxAgeInMonths()).toLocalDate();
+        LocalDate rangeEnd = to == null || to.isAfter(today) ? today : to;
+        LocalDate rangeStart = last == null ? from : rangeEnd.minus(parsePeriod(last)).plusDays(1);
+        if (rangeStart == null) {
+            rangeStart = windowStart;
+        }
+        if (rangeStart.isAfter(rangeEnd)) {
+            throw new KnownException("Start of the range is after its end.", HttpStatus.BAD_REQUEST);
+        }
+        if (rangeStart.isBefore(windowStart)) {
+            throw new KnownException("Points are kept since " + windowStart + " only.",
+                    HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+        if (!dailyIndex.contains(customerId)) {
+            throw new KnownException("Customer not found.", HttpStatus.NOT_FOUND);
+        }
+
+        List<PeriodRewardDTO> rollups = new ArrayList<>();
+        LocalDate periodStart = rangeStart;
+        while (!periodStart.isAfter(rangeEnd)) {
+            LocalDate lastDay = period.lastDay(periodStart);
+            LocalDate periodEnd = lastDay.isAfter(rangeEnd) ? rangeEnd : lastDay;
+            long points = dailyIndex.sum(customerId, periodStart.toEpochDay(), periodEnd.toEpochDay());
+            rollups.add(new PeriodRewardDTO(periodStart, periodEnd, MonthlyPointsAccumulator.toPoints(points)));
+            periodStart = periodEnd.plusDays(1);
+        }
+        return rollups;
+    }
+
+    /**
+     * @return up to {@code limit} customers with most points this month, best first
+     */
+    public List<LeaderboardEntryDTO> getLeaderboard(int limit) {
+        if (limit < 1) {
+            throw new KnownException("Limit must be positive.", HttpStatus.BAD_REQUEST);
+        }
+        return leaderboard.top(currentMonth(rewardService.validationContext()), limit);
+    }
+
+    @Scheduled(fixedDelayString = "${reward.live.drain-interval:PT0.05S}")
+    void drain() {
+        Map<MonthKey, long[]> batch = new HashMap<>();
+        Map<DayKey, long[]> dailyBatch = new HashMap<>();
+        while (!queue.isEmpty()) {
+            batch.clear();
+            dailyBatch.clear();
+            LivePurchase purchase;
+            int drained = 0;
+            for (; drained < batchSize && (purchase = queue.poll()) != null; drained++) {
+                long[] totals = batch.computeIfAbsent(new MonthKey(purchase.customerId(), purchase.month()),
+                        key -> new long[2]);
+                totals[0] += purchase.points();
+                totals[1]++;
+                if (dailyIndex != null) {
+                    dailyBatch.computeIfAbsent(new DayKey(purchase.customerId(), purchase.day()),
+                            key -> new long[1])[0] += purchase.points();
+                }
+            }
+            queued.addAndGet(-drained);
+            batch.forEach((key, totals) -> {
+                long monthPoints;
+                try {
+                    monthPoints = store.add(key.customerId(), key.month(), totals[0], totals[1]);
+                } catch (IllegalStateException | IllegalArgumentException e) {
+                    // customers are reserved on ingest, but one failing customer must not drop the rest of the batch
+                    log.error("Dropped {} points of {} purchases of customer {}: {}",
+                            totals[0], totals[1], key.customerId(), e.getMessage());
+                    return;
+                }
+                if (monthPoints >= 0) {
+                    leaderboard.offer(key.customerId(), key.month(), monthPoints);
+                }
+            });
+            dailyBatch.forEach((key, points) -> dailyIndex.add(key.customerId(), key.day(), points[0]));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${reward.live.prune-interval:PT1H}")
+    void prune() {
+        ValidationContext context = rewardService.validationContext();
+        store.removeMonthsBefore(currentMonth(context) - context.getMaxAgeInMonths());
+        deduplicator.removeMonthsBefore(currentMonth(context) - context.getMaxAgeInMonths());
+        if (dailyIndex != null) {
+            dailyIndex.removeCustomersIdleBefore(
+                    context.getNow().minusMonths(context.getMaxAgeInMonths()).toLocalDate().toEpochDay());
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        drain();
+        log.info("Live purchases stopped with {} customers.", store.size());
+    }
+
+    private static long currentMonth(ValidationContext context) {
+        YearMonth currentMonth = context.getCurrentMonth();
+        return MonthlyPointsAccumulator.monthIndex(currentMonth.getYear(), currentMonth.getMonthValue());
+    }
+
+    private static Period parsePeriod(String last) {
+        try {
+            Period period = Period.parse(last);
+            if (period.isNegative() || period.isZero()) {
+                throw new KnownException("Period must be positive.", HttpStatus.BAD_REQUEST);
+            }
+            return period;
+        } catch (DateTimeParseException e) {
+            throw new KnownException("Unknown period, use ISO-8601 like P30D or P3M.", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private record LivePurchase(long customerId, long month, long day, long points) {
+    }
+
+    private record MonthKey(long customerId, long month) {
+    }
+
+    private record DayKey(long customerId, long day) {
+    }
+}
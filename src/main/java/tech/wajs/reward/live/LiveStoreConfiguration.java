@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.live;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tech.wajs.reward.service.RewardService;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Chooses where live aggregates are kept: {@code reward.live.store=heap} (default) or {@code off-heap}, the
+ * latter in direct memory or, with {@code reward.live.off-heap.file}, in a memory-mapped file.
+ */
+@Configuration
+@Slf4j
+@ConditionalOnProperty(prefix = "reward.live", name = "enabled", havingValue = "true")
+public class LiveStoreConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "reward.live", name = "store", havingValue = "heap", matchIfMissing = true)
+    public AggregateStore heapAggregateStore() {
+        return new LiveAggregateStore();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "reward.live", name = "store", havingValue = "off-heap")
+    public OffHeapAggregateStore offHeapAggregateStore(RewardService rewardService,
+                                                       @Value("${reward.live.off-heap.capacity:1048576}") int capacity,
+                                                       @Value("${reward.live.off-heap.file:}") String file)
+            throws IOException {
+        int months = rewardService.validationContext().getMaxAgeInMonths() + 1;
+        OffHeapAggregateStore store =
+                new OffHeapAggregateStore(capacity, months, file.isBlank() ? null : Path.of(file));
+        log.info("Off-heap customer store for {} customers takes {} MB, {} customers loaded.",
+                capacity, store.getTableBytes() >> 20, store.size());
+        return store;
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.live;
+
+import tech.wajs.reward.service.MonthlyPointsAccumulator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Open-addressing hash table of customers kept outside the Java heap, in direct buffers or in a memory-mapped
+ * file that survives restarts. Every slot has a fixed width: the customer id followed by a ring of
+ * {@code months} cells (month, transactions, points), so a customer costs the same number of bytes whatever
+ * its history and the garbage collector never sees the data.
+ * <p>
+ * Slots are claimed with a compare-and-set on the customer id, after the customer count has been raised below the
+ * capacity with another one, and never freed. Cells are updated under one of
+ * {@value #STRIPES} striped locks, readers try an optimistic read first. A new month reuses the cell of the
+ * month that fell out of the ring; points for a month older than the one in its cell are dropped.
+ */
+public class OffHeapAggregateStore implements AggregateStore, Closeable {
+    private static final long MAGIC = 0x5257_4453_544f_5245L; // "RWDSTORE"
+    private static final int HEADER_SIZE = 64;
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int KEY_SIZE = Long.BYTES;
+    private static final int CELL_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+    private static final int MAX_SEGMENT_SIZE = 1 << 30;
+    private static final int STRIPES = 1024;
+    private static final double LOAD_FACTOR = 0.75;
+    private static final VarHandle KEYS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final int capacity;
+    private final int months;
+    private final int slotSize;
+    private final long tableSize;
+    private final int segmentShift;
+    private final long segmentMask;
+    private final ByteBuffer[] segments;
+    private final StampedLock[] locks = new StampedLock[STRIPES];
+    private final AtomicInteger size = new AtomicInteger();
+    private final FileChannel channel;
+
+    /**
+     * @param capacity number of customers the store accepts
+     * @param months   length of the month ring
+     * @param file     file backing the table, {@code null} to keep it in direct memory only
+     */
+    public OffHeapAggregateStore(int capacity, int months, Path file) throws IOException {
+        this.capacity = capacity;
+        this.months = months;
+        this.slotSize = KEY_SIZE + months * CELL_SIZE;
+        this.tableSize = Long.highestOneBit(Math.max(1, (long) Math.ceil(capacity / LOAD_FACTOR)) * 2 - 1);
+        long slotsPerSegment = Math.min(tableSize, Integer.highestOneBit(MAX_SEGMENT_SIZE / slotSize));
+        this.segmentShift = Long.numberOfTrailingZeros(slotsPerSegment);
+        this.segmentMask = slotsPerSegment - 1;
+        this.segments = new ByteBuffer[(int) (tableSize / slotsPerSegment)];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new StampedLock();
+        }
+
+        int segmentSize = (int) (slotsPerSegment * slotSize);
+        if (file == null) {
+            this.channel = null;
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = ByteBuffer.allocateDirect(segmentSize).order(ByteOrder.nativeOrder());
+            }
+            clear();
+            return;
+        }
+
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        boolean created = channel.size() == 0;
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        header.order(ByteOrder.nativeOrder());
+        if (!created && (header.getLong(0) != MAGIC || header.getInt(8) != months
+                || header.getLong(16) != tableSize)) {
+            channel.close();
+            throw new IllegalStateException("Customer store " + file + " was created with different settings.");
+        }
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + (long) i * segmentSize,
+                    segmentSize).order(ByteOrder.nativeOrder());
+        }
+        if (created) {
+            clear();
+            header.putLong(16, tableSize).putInt(8, months).putLong(0, MAGIC);
+            header.force();
+        } else {
+            size.set(countCustomers());
+        }
+    }
+
+    @Override
+    public long add(long customerId, long month, long points, long transactions) {
+        if (customerId == EMPTY) {
+            throw new IllegalArgumentException("Customer id " + customerId + " is reserved.");
+        }
+        long slot = findSlot(customerId, true);
+        if (slot < 0) {
+            throw new IllegalStateException("Customer store is full, capacity is " + capacity + ".");
+        }
+        ByteBuffer segment = segment(slot);
+        int cell = offset(slot) + KEY_SIZE + (int) Math.floorMod(month, months) * CELL_SIZE;
+        StampedLock lock = lock(slot);
+        long stamp = lock.writeLock();
+        try {
+            int cellMonth = segment.getInt(cell);
+            if (cellMonth != month) {
+                if (cellMonth > month) {
+                    return -1;
+                }
+                segment.putInt(cell, (int) month);
+                segment.putInt(cell + Integer.BYTES, 0);
+                segment.putLong(cell + 2 * Integer.BYTES, 0);
+            }
+            segment.putInt(cell + Integer.BYTES, segment.getInt(cell + Integer.BYTES) + (int) transactions);
+            long monthPoints = segment.getLong(cell + 2 * Integer.BYTES) + points;
+            segment.putLong(cell + 2 * Integer.BYTES, monthPoints);
+            return monthPoints;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean reserve(long customerId) {
+        if (customerId == EMPTY) {
+            throw new IllegalArgumentException("Customer id " + customerId + " is reserved.");
+        }
+        return findSlot(customerId, true) >= 0;
+    }
+
+    @Override
+    public MonthlyPointsAccumulator get(long customerId, long firstMonth, long lastMonth) {
+        long slot = customerId == EMPTY ? -1 : findSlot(customerId, false);
+        if (slot < 0) {
+            return null;
+        }
+        long[] cells = new long[3 * months];
+        StampedLock lock = lock(slot);
+        long stamp = lock.tryOptimisticRead();
+        readCells(slot, cells);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                readCells(slot, cells);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        MonthlyPointsAccumulator accumulator = new MonthlyPointsAccumulator();
+        boolean known = false;
+        for (int i = 0; i < cells.length; i += 3) {
+            known |= cells[i + 1] > 0;
+            if (cells[i + 1] > 0 && cells[i] >= firstMonth && cells[i] <= lastMonth) {
+                accumulator.add(cells[i], cells[i + 2], (int) cells[i + 1]);
+            }
+        }
+        // a reserved slot without points is not a customer yet
+        return known ? accumulator : null;
+    }
+
+    /**
+     * Old months are overwritten when their cell is reused and skipped by {@link #get}, so nothing is done here.
+     */
+    @Override
+    public void removeMonthsBefore(long month) {
+    }
+
+    /**
+     * Scans the whole table, meant for rare calls such as startup.
+     */
+    @Override
+    public void forEachMonth(long month, MonthPointsConsumer consumer) {
+        for (long slot = 0; slot < tableSize; slot++) {
+            ByteBuffer segment = segment(slot);
+            long customerId = (long) KEYS.getVolatile(segment, offset(slot));
+            if (customerId == EMPTY) {
+                continue;
+            }
+            int cell = offset(slot) + KEY_SIZE + (int) Math.floorMod(month, months) * CELL_SIZE;
+            StampedLock lock = lock(slot);
+            long stamp = lock.readLock();
+            long points;
+            try {
+                if (segment.getInt(cell) != month || segment.getInt(cell + Integer.BYTES) == 0) {
+                    continue;
+                }
+                points = segment.getLong(cell + 2 * Integer.BYTES);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            consumer.accept(customerId, points);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * @return bytes taken by the table, not counting the file header
+     */
+    public long getTableBytes() {
+        return tableSize * slotSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            for (ByteBuffer segment : segments) {
+                ((MappedByteBuffer) segment).force();
+            }
+            channel.close();
+        }
+    }
+
+    /**
+     * @return slot of the customer, {@code -1} if it is unknown and {@code insert} is not set or the store is full
+     */
+    private long findSlot(long customerId, boolean insert) {
+        long mask = tableSize - 1;
+        long slot = hash(customerId) & mask;
+        for (long probe = 0; probe < tableSize; probe++) {
+            ByteBuffer segment = segment(slot);
+            int offset = offset(slot);
+            long stored = (long) KEYS.getVolatile(segment, offset);
+            if (stored == EMPTY) {
+                if (!insert) {
+                    return -1;
+                }
+                if (!incrementSize()) {
+                    return -1;
+                }
+                if (KEYS.compareAndSet(segment, offset, EMPTY, customerId)) {
+                    return slot;
+                }
+                size.decrementAndGet();
+                stored = (long) KEYS.getVolatile(segment, offset);
+            }
+            if (stored == customerId) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private boolean incrementSize() {
+        while (true) {
+            int current = size.get();
+            if (current >= capacity) {
+                return false;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void readCells(long slot, long[] cells) {
+        ByteBuffer segment = segment(slot);
+        int cell = offset(slot) + KEY_SIZE;
+        for (int i = 0; i < cells.length; i += 3, cell += CELL_SIZE) {
+            cells[i] = segment.getInt(cell);
+            cells[i + 1] = segment.getInt(cell + Integer.BYTES);
+            cells[i + 2] = segment.getLong(cell + 2 * Integer.BYTES);
+        }
+    }
+
+    private void clear() {
+        for (long slot = 0; slot < tableSize; slot++) {
+            segment(slot).putLong(offset(slot), EMPTY);
+        }
+    }
+
+    private int countCustomers() {
+        int customers = 0;
+        for (long slot = 0; slot < tableSize; slot++) {
+            if (segment(slot).getLong(offset(slot)) != EMPTY) {
+                customers++;
+            }
+        }
+        return customers;
+    }
+
+    private ByteBuffer segment(long slot) {
+        return segments[(int) (slot >>> segmentShift)];
+    }
+
+    private int offset(long slot) {
+        return (int) (slot & segmentMask) * slotSize;
+    }
+
+    private StampedLock lock(long slot) {
+        return locks[(int) (slot & (STRIPES - 1))];
+    }
+
+    private static long hash(long customerId) {
+        long h = customerId;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
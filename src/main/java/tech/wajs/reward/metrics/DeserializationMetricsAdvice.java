@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.metrics;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+
+/**
+ * Times reading of every {@code @RequestBody}. Streaming end-points read the body themselves while calculating,
+ * so their parsing time is part of {@code reward.calculations}.
+ */
+@ControllerAdvice
+@AllArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class DeserializationMetricsAdvice extends RequestBodyAdviceAdapter {
+    private static final String START_ATTRIBUTE = DeserializationMetricsAdvice.class.getName() + ".start";
+
+    private RewardMetrics metrics;
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                           Class<? extends HttpMessageConverter<?>> converterType) {
+        RequestContextHolder.currentRequestAttributes()
+                            .setAttribute(START_ATTRIBUTE, System.nanoTime(), RequestAttributes.SCOPE_REQUEST);
+        return inputMessage;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter,
+                                Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        Object start = RequestContextHolder.currentRequestAttributes()
+                                           .getAttribute(START_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (start instanceof Long startNanos) {
+            metrics.recordDeserialization(System.nanoTime() - startNanos);
+        }
+        return body;
+    }
+}
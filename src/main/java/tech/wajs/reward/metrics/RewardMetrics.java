@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters of the reward hot path. Meters are created once and kept in fields or maps, so recording a value is a
+ * field read or a map lookup, never a registry lookup.
+ */
+@Component
+public class RewardMetrics {
+    private static final long[] SIZE_LIMITS = {0, 10, 100, 1_000, 10_000};
+    private static final String[] SIZE_BUCKETS = {"0", "1-10", "11-100", "101-1000", "1001-10000", "10001+"};
+
+    private final MeterRegistry registry;
+    private final Timer[] calculations;
+    private final Counter transactions;
+    private final Timer deserialization;
+    private final Map<String, Timer> requests = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+    private final Map<String, Counter> admissions = new ConcurrentHashMap<>();
+
+    public RewardMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.calculations = new Timer[SIZE_BUCKETS.length];
+        for (int i = 0; i < SIZE_BUCKETS.length; i++) {
+            calculations[i] = Timer.builder("reward.calculations")
+                                   .description("Time to validate and aggregate one list of transactions")
+                                   .tag("transactions", SIZE_BUCKETS[i])
+                                   .publishPercentileHistogram()
+                                   .register(registry);
+        }
+        this.transactions = Counter.builder("reward.transactions")
+                                   .description("Transactions turned into points")
+                                   .register(registry);
+        this.deserialization = Timer.builder("reward.deserialization")
+                                    .description("Time to read a JSON request body")
+                                    .publishPercentileHistogram()
+                                    .register(registry);
+    }
+
+    /**
+     * Metrics that go nowhere, for code that runs outside of the application context.
+     */
+    public static RewardMetrics noop() {
+        return new RewardMetrics(new CompositeMeterRegistry());
+    }
+
+    public void recordCalculation(long transactionCount, long nanos) {
+        calculations[bucket(transactionCount)].record(nanos, TimeUnit.NANOSECONDS);
+        transactions.increment(transactionCount);
+    }
+
+    public void recordRequest(String endpoint, long transactionCount, String outcome, long nanos) {
+        String bucket = SIZE_BUCKETS[bucket(transactionCount)];
+        requests.computeIfAbsent(endpoint + '|' + bucket + '|' + outcome,
+                        key -> Timer.builder("reward.requests")
+                                    .description("Time to serve a reward request after its body was read")
+                                    .tag("endpoint", endpoint)
+                                    .tag("transactions", bucket)
+                                    .tag("outcome", outcome)
+                                    .publishPercentileHistogram()
+                                    .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRejection(String reason) {
+        rejections.computeIfAbsent(reason,
+                        key -> Counter.builder("reward.rejections")
+                                      .description("Requests or transactions rejected by a validator")
+                                      .tag("reason", reason)
+                                      .register(registry))
+                .increment();
+    }
+
+    public void recordAdmission(String endpoint, String decision) {
+        admissions.computeIfAbsent(endpoint + '|' + decision,
+                        key -> Counter.builder("reward.admission")
+                                      .description("Admission control decisions")
+                                      .tag("endpoint", endpoint)
+                                      .tag("decision", decision)
+                                      .register(registry))
+                .increment();
+    }
+
+    public void registerInFlightBytes(String endpoint, Supplier<Number> inFlightBytes) {
+        Gauge.builder("reward.admission.in-flight", inFlightBytes)
+             .description("Bytes of admitted request bodies still being processed")
+             .baseUnit("bytes")
+             .tag("endpoint", endpoint)
+             .register(registry);
+    }
+
+    public void recordDeserialization(long nanos) {
+        deserialization.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static int bucket(long transactionCount) {
+        int bucket = 0;
+        while (bucket < SIZE_LIMITS.length && transactionCount > SIZE_LIMITS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.programs;
+
+import lombok.Getter;
+import tech.wajs.reward.tiers.TierTable;
+import tech.wajs.reward.validators.RewardValidators;
+
+/**
+ * Compiled rules of one merchant program: tier table and look-back window. The window is turned into validators
+ * per request by {@link tech.wajs.reward.validators.ValidationContext}. Programs are immutable; a reload creates
+ * new instances.
+ */
+@Getter
+public class RewardProgram {
+    public static final String DEFAULT_ID = "default";
+    public static final RewardProgram DEFAULT =
+            new RewardProgram(DEFAULT_ID, TierTable.DEFAULT, RewardValidators.MAX_AGE_IN_MONTHS);
+
+    private final String id;
+    private final TierTable tierTable;
+    private final int maxAgeInMonths;
+
+    public RewardProgram(String id, TierTable tierTable, int maxAgeInMonths) {
+        if (maxAgeInMonths < 0) {
+            throw new IllegalArgumentException("Look-back window of program " + id + " can not be negative.");
+        }
+        this.id = id;
+        this.tierTable = tierTable;
+        this.maxAgeInMonths = maxAgeInMonths;
+    }
+}
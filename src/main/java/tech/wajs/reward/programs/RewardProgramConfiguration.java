@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.programs;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tech.wajs.reward.tiers.TierProperties;
+import tech.wajs.reward.tiers.TierTable;
+import tech.wajs.reward.validators.RewardValidators;
+
+@Configuration
+@EnableConfigurationProperties(TierProperties.class)
+public class RewardProgramConfiguration {
+
+    @Bean
+    public RewardProgram defaultRewardProgram(TierProperties properties) {
+        TierTable tierTable = properties.getTiers().isEmpty()
+                ? TierTable.DEFAULT
+                : TierTable.compile(properties.getTiers());
+        return new RewardProgram(RewardProgram.DEFAULT_ID, tierTable, RewardValidators.MAX_AGE_IN_MONTHS);
+    }
+}
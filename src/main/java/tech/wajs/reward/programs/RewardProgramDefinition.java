@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.programs;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tech.wajs.reward.tiers.Tier;
+import tech.wajs.reward.tiers.TierTable;
+import tech.wajs.reward.validators.RewardValidators;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One entry of the {@code reward.programs.file} JSON array.
+ */
+@Data
+@NoArgsConstructor
+public class RewardProgramDefinition {
+    private String id;
+    private int maxAgeInMonths = RewardValidators.MAX_AGE_IN_MONTHS;
+    private List<Tier> tiers = new ArrayList<>();
+
+    RewardProgram compile() {
+        if (id == null || id.isBlank()) {
+            throw new IllegalArgumentException("Reward program id is missing.");
+        }
+        return new RewardProgram(id, TierTable.compile(tiers), maxAgeInMonths);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.programs;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import tech.wajs.reward.exceptions.KnownException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reward programs by id. Programs other than the default one are read from {@code reward.programs.file} and
+ * reloaded whenever that file changes. A reload compiles a new map and swaps the reference, so requests never
+ * wait for it; a file that fails to load is logged and the previous programs stay active.
+ */
+@Component
+@Slf4j
+public class RewardProgramRegistry {
+    private static final TypeReference<List<RewardProgramDefinition>> DEFINITIONS = new TypeReference<>() {
+    };
+
+    private final RewardProgram defaultProgram;
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    private volatile Map<String, RewardProgram> programs;
+    private WatchService watchService;
+
+    public RewardProgramRegistry(RewardProgram defaultProgram,
+                                 ObjectMapper objectMapper,
+                                 @Value("${reward.programs.file:}") String file) {
+        this.defaultProgram = defaultProgram;
+        this.objectMapper = objectMapper;
+        this.file = file.isBlank() ? null : Path.of(file).toAbsolutePath();
+        this.programs = Map.of(defaultProgram.getId(), defaultProgram);
+    }
+
+    public RewardProgram get(String programId) {
+        if (programId == null) {
+            return defaultProgram;
+        }
+        RewardProgram program = programs.get(programId);
+        if (program == null) {
+            throw new KnownException("Reward program not found.", HttpStatus.NOT_FOUND);
+        }
+        return program;
+    }
+
+    public RewardProgram getDefault() {
+        return defaultProgram;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (file == null) {
+            return;
+        }
+        reload();
+        watchService = FileSystems.getDefault().newWatchService();
+        file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread watcher = new Thread(this::watch, "reward-programs-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    void reload() throws IOException {
+        List<RewardProgramDefinition> definitions = objectMapper.readValue(file.toFile(), DEFINITIONS);
+        Map<String, RewardProgram> reloaded = new HashMap<>();
+        reloaded.put(defaultProgram.getId(), defaultProgram);
+        for (RewardProgramDefinition definition : definitions) {
+            if (defaultProgram.getId().equals(definition.getId())) {
+                throw new IllegalArgumentException("Program id '" + definition.getId() + "' is reserved.");
+            }
+            if (reloaded.put(definition.getId(), definition.compile()) != null) {
+                throw new IllegalArgumentException("Duplicated program id: " + definition.getId());
+            }
+        }
+        programs = Map.copyOf(reloaded);
+        log.info("Loaded {} reward programs from {}.", reloaded.size() - 1, file);
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= file.getFileName().equals(event.context());
+                }
+                key.reset();
+                if (changed) {
+                    reloadQuietly();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // stopped
+        }
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (IOException | RuntimeException e) {
+            log.error("Can not reload reward programs from {}, keeping the previous ones.", file, e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.server;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Lets a handler give its own request a longer async timeout with {@link #setTimeout}, for responses such as
+ * {@code StreamingResponseBody} that have no timeout of their own. Other requests keep the default timeout.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AsyncTimeoutConfiguration implements WebMvcConfigurer {
+    private static final String TIMEOUT_ATTRIBUTE = AsyncTimeoutConfiguration.class.getName() + ".timeout";
+
+    public static void setTimeout(HttpServletRequest request, Duration timeout) {
+        request.setAttribute(TIMEOUT_ATTRIBUTE, timeout);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                Object timeout = request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+                if (timeout instanceof Duration duration && request instanceof AsyncWebRequest asyncRequest) {
+                    asyncRequest.setTimeout(duration.toMillis());
+                }
+            }
+        });
+    }
+}
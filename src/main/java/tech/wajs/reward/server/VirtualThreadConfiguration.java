@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.server;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Serves requests on virtual threads when {@code reward.server.virtual-threads=true}. A request waiting for a slow
+ * client upload then parks a virtual thread instead of holding one of Tomcat's platform threads. The executor is
+ * set on the connector, so it covers {@code /api/**} together with every other path. On a JDK without virtual
+ * threads a warning is logged and Tomcat keeps its thread pool.
+ */
+@Configuration
+@Slf4j
+@ConditionalOnProperty(prefix = "reward.server", name = "virtual-threads", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    @Bean
+    public VirtualThreadExecutorCustomizer virtualThreadExecutorCustomizer() {
+        Optional<ExecutorService> executor = VirtualThreads.newExecutor();
+        if (executor.isEmpty()) {
+            log.warn("Virtual threads are not available on Java {}, requests stay on the Tomcat thread pool.",
+                    Runtime.version().feature());
+        }
+        return new VirtualThreadExecutorCustomizer(executor.orElse(null));
+    }
+
+    static class VirtualThreadExecutorCustomizer
+            implements TomcatProtocolHandlerCustomizer<ProtocolHandler>, DisposableBean {
+        private final ExecutorService executor;
+
+        VirtualThreadExecutorCustomizer(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void customize(ProtocolHandler protocolHandler) {
+            if (executor != null && protocolHandler instanceof AbstractProtocol<?> protocol) {
+                protocol.setExecutor(executor);
+                log.info("Serving requests on virtual threads.");
+            }
+        }
+
+        @Override
+        public void destroy() {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+}
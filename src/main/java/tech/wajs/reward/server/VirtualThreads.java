@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.server;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to virtual threads while the code is still compiled for Java 17. The executor is looked up reflectively,
+ * so the same build runs on older JDKs, where virtual threads are reported as unavailable.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return executor starting a new virtual thread per task, or empty if this JDK has no virtual threads or has
+     * them only as a disabled preview feature
+     */
+    public static Optional<ExecutorService> newExecutor() {
+        try {
+            return Optional.of((ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+                                                                .invoke(null));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return Optional.empty();
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof UnsupportedOperationException) {
+                return Optional.empty();
+            }
+            throw new IllegalStateException("Can not create virtual thread executor.", e.getCause());
+        }
+    }
+}
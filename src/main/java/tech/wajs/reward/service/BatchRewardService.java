@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tech.wajs.reward.dto.CustomerRewardDTO;
+import tech.wajs.reward.dto.CustomerTransactionsDTO;
+import tech.wajs.reward.exceptions.KnownException;
+import tech.wajs.reward.ingest.TransactionStreamReader;
+import tech.wajs.reward.validators.RewardValidators;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Calculates rewards for many customers in parallel on a dedicated fork-join pool. A customer whose
+ * transactions fail validation gets an error entry instead of failing the whole batch.
+ */
+@Service
+public class BatchRewardService {
+    private final RewardService rewardService;
+    private final RewardValidators validator;
+    private final TransactionStreamReader transactionReader;
+    private final ForkJoinPool pool;
+    private final int maxInFlight;
+
+    public BatchRewardService(RewardService rewardService,
+                              RewardValidators validator,
+                              TransactionStreamReader transactionReader,
+                              @Value("${reward.batch.parallelism:0}") int parallelism,
+                              @Value("${reward.batch.max-in-flight:0}") int maxInFlight) {
+        this.rewardService = rewardService;
+        this.validator = validator;
+        this.transactionReader = transactionReader;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.maxInFlight = maxInFlight > 0 ? maxInFlight : 4 * pool.getParallelism();
+    }
+
+    public List<CustomerRewardDTO> calculateRewards(List<CustomerTransactionsDTO> customers) {
+        validator.validate(customers, RewardValidators.EMPTY_BATCH);
+
+        return pool.submit(() -> customers.parallelStream()
+                                          .map(this::calculateReward)
+                                          .toList())
+                   .join();
+    }
+
+    /**
+     * Reads a JSON array of customers up to its first element and rejects an empty one, so the caller can fail
+     * the request before it starts a response.
+     */
+    public JsonParser openCustomers(InputStream customersJson) throws IOException {
+        JsonParser customers = transactionReader.openCustomers(customersJson);
+        if (customers.currentToken() == JsonToken.END_ARRAY) {
+            customers.close();
+            validator.validate(0L, RewardValidators.NO_CUSTOMERS);
+        }
+        return customers;
+    }
+
+    /**
+     * Reads customers from a JSON array and passes each result to the sink as soon as it is computed, in
+     * completion order. At most {@code reward.batch.max-in-flight} customers are parsed but not yet written.
+     */
+    public long calculateRewards(InputStream customersJson, Consumer<CustomerRewardDTO> sink) throws IOException {
+        return calculateRewards(openCustomers(customersJson), sink);
+    }
+
+    /**
+     * Continues {@link #calculateRewards(InputStream, Consumer)} from a parser returned by {@link #openCustomers}.
+     */
+    public long calculateRewards(JsonParser customers, Consumer<CustomerRewardDTO> sink) throws IOException {
+        StreamingBatch batch = new StreamingBatch(sink);
+        long count = transactionReader.readCustomers(customers, batch);
+        batch.finish();
+        return count;
+    }
+
+    CustomerRewardDTO calculateReward(CustomerTransactionsDTO customer) {
+        try {
+            validator.validate(customer, RewardValidators.CUSTOMER_ID_MISSING);
+            return CustomerRewardDTO.success(customer.getCustomerId(),
+                    rewardService.calculateReward(customer.getTransactions()));
+        } catch (KnownException e) {
+            return CustomerRewardDTO.failure(customer == null ? null : customer.getCustomerId(), e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    private class StreamingBatch implements Consumer<CustomerTransactionsDTO> {
+        private final CompletionService<CustomerRewardDTO> completion = new ExecutorCompletionService<>(pool);
+        private final Consumer<CustomerRewardDTO> sink;
+        private int inFlight;
+
+        StreamingBatch(Consumer<CustomerRewardDTO> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void accept(CustomerTransactionsDTO customer) {
+            if (inFlight == maxInFlight) {
+                sink.accept(take());
+            }
+            completion.submit(() -> calculateReward(customer));
+            inFlight++;
+            Future<CustomerRewardDTO> done;
+            while ((done = completion.poll()) != null) {
+                inFlight--;
+                sink.accept(result(done));
+            }
+        }
+
+        void finish() {
+            while (inFlight > 0) {
+                sink.accept(take());
+            }
+        }
+
+        private CustomerRewardDTO take() {
+            try {
+                Future<CustomerRewardDTO> done = completion.take();
+                inFlight--;
+                return result(done);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for batch results.", e);
+            }
+        }
+
+        private CustomerRewardDTO result(Future<CustomerRewardDTO> done) {
+            try {
+                return done.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for batch results.", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+}
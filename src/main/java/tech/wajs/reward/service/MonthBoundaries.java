@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.service;
+
+import java.time.YearMonth;
+
+/**
+ * Start of each month of a window as local epoch seconds, so that month of an epoch second and UTC offset is found
+ * with a few comparisons instead of a calendar calculation. Times outside the window fall back to
+ * {@link MonthlyPointsAccumulator#monthIndex(long, int)}.
+ */
+public class MonthBoundaries {
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private final long firstMonth;
+    private final long[] starts;
+
+    private MonthBoundaries(long firstMonth, long[] starts) {
+        this.firstMonth = firstMonth;
+        this.starts = starts;
+    }
+
+    /**
+     * Covers {@code monthsBack} whole months before {@code current}, plus one month on each side of that window.
+     */
+    public static MonthBoundaries around(YearMonth current, int monthsBack) {
+        YearMonth first = current.minusMonths(monthsBack + 1L);
+        int months = monthsBack + 3;
+        long[] starts = new long[months + 1];
+        for (int i = 0; i <= months; i++) {
+            starts[i] = first.plusMonths(i).atDay(1).toEpochDay() * SECONDS_PER_DAY;
+        }
+        return new MonthBoundaries(MonthlyPointsAccumulator.monthIndex(first.getYear(), first.getMonthValue()),
+                starts);
+    }
+
+    public long monthIndex(long epochSecond, int offsetSeconds) {
+        long localSecond = epochSecond + offsetSeconds;
+        int last = starts.length - 1;
+        if (localSecond < starts[0] || localSecond >= starts[last]) {
+            return MonthlyPointsAccumulator.monthIndex(epochSecond, offsetSeconds);
+        }
+        // recent months are the common case
+        int month = last - 1;
+        while (localSecond < starts[month]) {
+            month--;
+        }
+        return firstMonth + month;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.service;
+
+import org.springframework.http.HttpStatus;
+import tech.wajs.reward.dto.MonthlyRewardDTO;
+import tech.wajs.reward.dto.RewardDTO;
+import tech.wajs.reward.exceptions.KnownException;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Points and transaction counts per month, kept in primitive arrays indexed by {@code year * 12 + month - 1}
+ * relative to the first month seen. Adding a transaction does not allocate unless the range of months grows.
+ */
+public class MonthlyPointsAccumulator {
+    private static final int MONTHS_IN_YEAR = 12;
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+    private static final int INITIAL_MONTHS = 4;
+    private static final int MAX_MONTHS = 100 * MONTHS_IN_YEAR;
+
+    private long firstMonth;
+    private long[] points = new long[INITIAL_MONTHS];
+    private int[] transactions = new int[INITIAL_MONTHS];
+    private boolean empty = true;
+
+    public static long monthIndex(int year, int month) {
+        return (long) year * MONTHS_IN_YEAR + month - 1;
+    }
+
+    public static long monthIndex(ZonedDateTime time) {
+        return monthIndex(time.getYear(), time.getMonthValue());
+    }
+
+    public static long monthIndex(long epochSecond, int offsetSeconds) {
+        LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(epochSecond + offsetSeconds, SECONDS_PER_DAY));
+        return monthIndex(date.getYear(), date.getMonthValue());
+    }
+
+    public void add(long monthIndex, long points) {
+        add(monthIndex, points, 1);
+    }
+
+    public void add(long monthIndex, long points, int transactions) {
+        int slot = slot(monthIndex);
+        this.points[slot] += points;
+        this.transactions[slot] += transactions;
+    }
+
+    public void merge(MonthlyPointsAccumulator other) {
+        for (int slot = 0; slot < other.points.length; slot++) {
+            if (other.transactions[slot] != 0) {
+                add(other.firstMonth + slot, other.points[slot], other.transactions[slot]);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    public RewardDTO toReward() {
+        Set<MonthlyRewardDTO> monthlyRewards = new HashSet<>();
+        long totalPoints = 0;
+        for (int slot = 0; slot < points.length; slot++) {
+            if (transactions[slot] == 0) {
+                continue;
+            }
+            long month = firstMonth + slot;
+            MonthlyRewardDTO monthlyReward = new MonthlyRewardDTO(
+                    (int) Math.floorDiv(month, MONTHS_IN_YEAR),
+                    (int) Math.floorMod(month, MONTHS_IN_YEAR) + 1);
+            monthlyReward.setPoints(toPoints(points[slot]));
+            monthlyRewards.add(monthlyReward);
+            totalPoints += points[slot];
+        }
+        return new RewardDTO(monthlyRewards, toPoints(totalPoints));
+    }
+
+    /**
+     * @return the points as reported in a reward, failing like the 100-year span check when they do not fit
+     */
+    public static int toPoints(long points) {
+        if (points > Integer.MAX_VALUE) {
+            throw new KnownException("Points exceed " + Integer.MAX_VALUE + ".", HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+        return (int) points;
+    }
+
+    private int slot(long monthIndex) {
+        if (empty) {
+            firstMonth = monthIndex;
+            empty = false;
+        }
+        long slot = monthIndex - firstMonth;
+        if (slot < 0 || slot >= points.length) {
+            return grow(monthIndex);
+        }
+        return (int) slot;
+    }
+
+    private int grow(long monthIndex) {
+        long newFirstMonth = Math.min(firstMonth, monthIndex);
+        long lastMonth = Math.max(firstMonth + lastUsedSlot(), monthIndex);
+        if (lastMonth - newFirstMonth >= MAX_MONTHS) {
+            throw new KnownException("Transactions can not span more than 100 years.",
+                    HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+        int length = (int) Math.min(MAX_MONTHS, Math.max(2L * points.length, lastMonth - newFirstMonth + 1));
+        int shift = (int) (firstMonth - newFirstMonth);
+        int usedSlots = Math.min(points.length, length - shift);
+        long[] newPoints = new long[length];
+        int[] newTransactions = new int[length];
+        System.arraycopy(points, 0, newPoints, shift, usedSlots);
+        System.arraycopy(transactions, 0, newTransactions, shift, usedSlots);
+        points = newPoints;
+        transactions = newTransactions;
+        firstMonth = newFirstMonth;
+        return (int) (monthIndex - firstMonth);
+    }
+
+    private int lastUsedSlot() {
+        int slot = transactions.length - 1;
+        while (slot > 0 && transactions[slot] == 0) {
+            slot--;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tech.wajs.reward.dto.RewardDTO;
+import tech.wajs.reward.dto.TransactionDTO;
+import tech.wajs.reward.metrics.RewardMetrics;
+import tech.wajs.reward.programs.RewardProgram;
+import tech.wajs.reward.validators.RewardValidators;
+import tech.wajs.reward.validators.ValidationContext;
+
+/**
+ * Non-blocking counterpart of {@link RewardService#calculateReward(java.io.InputStream, RewardProgram)}. Each
+ * transaction is validated and priced by {@link RewardService} and folded into a {@link MonthlyPointsAccumulator}
+ * as it arrives. Demand is limited to {@code reward.reactive.prefetch} transactions, so the request body is read
+ * only as fast as it is calculated.
+ */
+@Service
+public class ReactiveRewardService {
+    private final RewardService rewardService;
+    private final RewardValidators validator;
+    private final RewardMetrics metrics;
+    private final int prefetch;
+
+    public ReactiveRewardService(RewardService rewardService,
+                                 RewardValidators validator,
+                                 RewardMetrics metrics,
+                                 @Value("${reward.reactive.prefetch:256}") int prefetch) {
+        this.rewardService = rewardService;
+        this.validator = validator;
+        this.metrics = metrics;
+        this.prefetch = prefetch;
+    }
+
+    public Mono<RewardDTO> calculateReward(Flux<TransactionDTO> transactions, RewardProgram program) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            ValidationContext context = rewardService.validationContext(program);
+            return transactions.limitRate(prefetch)
+                               .reduce(new Aggregation(), (aggregation, transaction) -> aggregation.add(
+                                       transaction, rewardService.calculatePoints(transaction, program, context)))
+                               .map(aggregation -> {
+                                   validator.validate(aggregation.count, RewardValidators.NO_TRANSACTIONS);
+                                   RewardDTO reward = aggregation.accumulator.toReward();
+                                   metrics.recordCalculation(aggregation.count, System.nanoTime() - start);
+                                   return reward;
+                               });
+        });
+    }
+
+    private static class Aggregation {
+        private final MonthlyPointsAccumulator accumulator = new MonthlyPointsAccumulator();
+        private long count;
+
+        private Aggregation add(TransactionDTO transaction, long points) {
+            accumulator.add(MonthlyPointsAccumulator.monthIndex(transaction.getTime()), points);
+            count++;
+            return this;
+        }
+    }
+}
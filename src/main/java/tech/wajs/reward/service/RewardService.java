@@ -6,77 +6,164 @@ package tech.wajs.reward.service;
 
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
-import tech.wajs.reward.dto.MonthlyRewardDTO;
 import tech.wajs.reward.dto.RewardDTO;
 import tech.wajs.reward.dto.TransactionDTO;
-import tech.wajs.reward.enums.RewardThreshold;
+import tech.wajs.reward.enums.ValidationMode;
+import tech.wajs.reward.ingest.BinaryTransactionReader;
+import tech.wajs.reward.ingest.TransactionStreamReader;
+import tech.wajs.reward.metrics.RewardMetrics;
+import tech.wajs.reward.programs.RewardProgram;
+import tech.wajs.reward.tiers.TierTable;
 import tech.wajs.reward.validators.RewardValidators;
+import tech.wajs.reward.validators.ValidationContext;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-
-import static java.util.stream.Collectors.groupingBy;
 
 @Service
 @AllArgsConstructor
 public class RewardService {
-    private final int NO_POINTS = 0;
+    private static final long CENTS_PER_DOLLAR = 100;
     private RewardValidators validator;
+    private TransactionStreamReader transactionReader;
+    private RewardProgram defaultProgram;
+    private Clock clock;
+    private RewardMetrics metrics;
 
     public RewardDTO calculateReward(List<TransactionDTO> transactions) {
+        return calculateReward(transactions, defaultProgram);
+    }
+
+    public RewardDTO calculateReward(List<TransactionDTO> transactions, RewardProgram program) {
+        return calculateReward(transactions, program, ValidationMode.FIRST);
+    }
+
+    public RewardDTO calculateReward(List<TransactionDTO> transactions, RewardProgram program,
+                                     ValidationMode validationMode) {
+        long start = System.nanoTime();
         validator.validate(transactions, RewardValidators.EMPTY_LIST);
-        Set<MonthlyRewardDTO> monthlyRewards = calculateRewardsForEachMonth(transactions);
+        RewardDTO reward = validationMode == ValidationMode.ALL
+                ? validateAllAndAggregate(transactions, program)
+                : validateAndAggregate(transactions, program);
+        metrics.recordCalculation(transactions.size(), System.nanoTime() - start);
 
-        return new RewardDTO(monthlyRewards, calculatePointsTotal(monthlyRewards));
+        return reward;
     }
 
-    private Set<MonthlyRewardDTO> calculateRewardsForEachMonth(List<TransactionDTO> transactions) {
+    private RewardDTO validateAndAggregate(List<TransactionDTO> transactions, RewardProgram program) {
+        ValidationContext context = validationContext(program);
+        MonthlyPointsAccumulator accumulator = new MonthlyPointsAccumulator();
+        transactions.forEach(transaction -> addTransaction(accumulator, transaction, program, context));
+
+        return accumulator.toReward();
+    }
 
-        Map<MonthlyRewardDTO, List<TransactionDTO>> monthToTransactions =
-                transactions.stream().collect(groupingBy(this::createMonthlyReward));
-        monthToTransactions.forEach((month, trans) -> month.setPoints(calculateRewardFromTransactions(trans)));
+    private RewardDTO validateAllAndAggregate(List<TransactionDTO> transactions, RewardProgram program) {
+        validator.validateAll(transactions, validationContext(program).getTransactionValidators());
+        MonthlyPointsAccumulator accumulator = new MonthlyPointsAccumulator();
+        TierTable tierTable = program.getTierTable();
+        for (TransactionDTO transaction : transactions) {
+            accumulator.add(MonthlyPointsAccumulator.monthIndex(transaction.getTime()),
+                    tierTable.points(toCents(transaction.getCost())));
+        }
 
-        return monthToTransactions.keySet();
+        return accumulator.toReward();
     }
 
-    private MonthlyRewardDTO createMonthlyReward(TransactionDTO transaction) {
-        validator.validate(transaction, List.of(
-                RewardValidators.DATE_OR_COST_MISSING,
-                RewardValidators.NEGATIVE_COST,
-                RewardValidators.TOO_OLD));
-        return new MonthlyRewardDTO(transaction.getTime().getYear(), transaction.getTime().getMonth().getValue());
+    public RewardDTO calculateReward(InputStream json) throws IOException {
+        return calculateReward(json, defaultProgram);
     }
 
-    private Integer calculateRewardFromTransactions(List<TransactionDTO> transactions) {
-        return transactions.stream().mapToInt(t -> calculatePoints(t.getCost())).sum();
+    public RewardDTO calculateReward(InputStream json, RewardProgram program) throws IOException {
+        long start = System.nanoTime();
+        ValidationContext context = validationContext(program);
+        MonthlyPointsAccumulator accumulator = new MonthlyPointsAccumulator();
+        long count = transactionReader.read(json,
+                transaction -> addTransaction(accumulator, transaction, program, context));
+        validator.validate(count, RewardValidators.NO_TRANSACTIONS);
+        RewardDTO reward = accumulator.toReward();
+        metrics.recordCalculation(count, System.nanoTime() - start);
+
+        return reward;
     }
 
-    private Integer calculatePoints(BigDecimal costWithFractal) {
-        Integer cost = costWithFractal.intValue();
-        RewardThreshold firstThreshold = RewardThreshold.FIFTY_DOLLARS;
-        RewardThreshold secondThreshold = RewardThreshold.HUNDRED_DOLLARS;
+    /**
+     * Calculates the reward from {@link BinaryTransactionReader} records without creating a {@link TransactionDTO}
+     * per record. Epoch seconds carry no UTC offset, so months are taken in UTC.
+     */
+    public RewardDTO calculateReward(InputStream binary, boolean withCustomerId, RewardProgram program)
+            throws IOException {
+        long start = System.nanoTime();
+        ValidationContext context = validationContext(program);
+        MonthBoundaries months = MonthBoundaries.around(context.getCurrentMonth(), program.getMaxAgeInMonths());
+        TierTable tierTable = program.getTierTable();
+        MonthlyPointsAccumulator accumulator = new MonthlyPointsAccumulator();
+        long[] customerIds = new long[2];
+        boolean[] firstRecord = {true};
+        long count = BinaryTransactionReader.read(binary, withCustomerId, (customerId, epochSecond, cents) -> {
+            if (firstRecord[0]) {
+                customerIds[0] = customerId;
+                firstRecord[0] = false;
+            }
+            customerIds[1] = customerId;
+            validator.validate(customerIds, RewardValidators.MIXED_CUSTOMERS);
+            if (cents < 0) {
+                validator.reject(RewardValidators.NEGATIVE_COST);
+            }
+            if (context.isTooOld(epochSecond, 0)) {
+                validator.reject(context.getTooOld());
+            }
+            accumulator.add(months.monthIndex(epochSecond, 0), tierTable.points(cents));
+        });
+        validator.validate(count, RewardValidators.NO_TRANSACTIONS);
+        RewardDTO reward = accumulator.toReward();
+        metrics.recordCalculation(count, System.nanoTime() - start);
+
+        return reward;
+    }
 
-        if (cost <= firstThreshold.getCost()) {
-            return NO_POINTS;
-        }
-        if (cost <= secondThreshold.getCost()) {
-            return calculatePointsForThreshold(cost, firstThreshold);
-        }
-        Integer pointsFromFirstThreshold = firstThreshold.getPointsPerDollar() *
-                (secondThreshold.getCost() - firstThreshold.getCost());
+    public long calculatePoints(TransactionDTO transaction) {
+        return calculatePoints(transaction, defaultProgram);
+    }
 
-        return pointsFromFirstThreshold + calculatePointsForThreshold(cost, secondThreshold);
+    public long calculatePoints(TransactionDTO transaction, ValidationContext context) {
+        return calculatePoints(transaction, defaultProgram, context);
     }
 
-    private Integer calculatePointsForThreshold(Integer cost, RewardThreshold threshold) {
-        Integer dollarsAboveThreshold = cost - threshold.getCost();
-        return dollarsAboveThreshold * threshold.getPointsPerDollar();
+    public long calculatePoints(TransactionDTO transaction, RewardProgram program) {
+        return calculatePoints(transaction, program, validationContext(program));
     }
 
-    private Integer calculatePointsTotal(Set<MonthlyRewardDTO> monthlyRewards) {
-        return monthlyRewards.stream().mapToInt(MonthlyRewardDTO::getPoints).sum();
+    public long calculatePoints(TransactionDTO transaction, RewardProgram program, ValidationContext context) {
+        validator.validate(transaction, context.getTransactionValidators());
+        return program.getTierTable().points(toCents(transaction.getCost()));
+    }
+
+    public long calculatePoints(long cents) {
+        return defaultProgram.getTierTable().points(cents);
+    }
+
+    public ValidationContext validationContext() {
+        return validationContext(defaultProgram);
+    }
+
+    public ValidationContext validationContext(RewardProgram program) {
+        return ValidationContext.of(clock, program.getMaxAgeInMonths());
+    }
+
+    private void addTransaction(MonthlyPointsAccumulator accumulator, TransactionDTO transaction,
+                                RewardProgram program, ValidationContext context) {
+        long points = calculatePoints(transaction, program, context);
+        accumulator.add(MonthlyPointsAccumulator.monthIndex(transaction.getTime()), points);
     }
-}
 
+    public static long toCents(BigDecimal cost) {
+        if (cost.scale() == 0) {
+            return cost.longValue() * CENTS_PER_DOLLAR;
+        }
+        return cost.movePointRight(2).longValue();
+    }
+}
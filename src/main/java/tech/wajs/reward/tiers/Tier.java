@@ -0,0 +1,20 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.tiers;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Every whole dollar above {@code threshold} earns {@code pointsPerDollar}, up to the threshold of the next tier.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Tier {
+    private long threshold;
+    private long pointsPerDollar;
+}
@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.tiers;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code reward.tiers[n].threshold} and {@code reward.tiers[n].points-per-dollar}. Without any tier the
+ * {@link tech.wajs.reward.enums.RewardThreshold} defaults are used.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "reward")
+public class TierProperties {
+    private List<Tier> tiers = new ArrayList<>();
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.tiers;
+
+import tech.wajs.reward.enums.RewardThreshold;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Tiers compiled into sorted primitive arrays. {@code cumulativePoints[i]} holds the points earned by a cost
+ * equal to {@code breakpoints[i]}, so evaluating a cost is one binary search and one multiply, whatever the
+ * number of tiers.
+ */
+public final class TierTable {
+    public static final TierTable DEFAULT = compile(Arrays.stream(RewardThreshold.values())
+                                                          .map(t -> new Tier(t.getCost(), t.getPointsPerDollar()))
+                                                          .toList());
+    private static final long CENTS_PER_DOLLAR = 100;
+
+    private final long[] breakpoints;
+    private final long[] pointsPerDollar;
+    private final long[] cumulativePoints;
+
+    private TierTable(long[] breakpoints, long[] pointsPerDollar, long[] cumulativePoints) {
+        this.breakpoints = breakpoints;
+        this.pointsPerDollar = pointsPerDollar;
+        this.cumulativePoints = cumulativePoints;
+    }
+
+    public static TierTable compile(List<Tier> tiers) {
+        List<Tier> sorted = tiers.stream().sorted(Comparator.comparingLong(Tier::getThreshold)).toList();
+        long[] breakpoints = new long[sorted.size()];
+        long[] pointsPerDollar = new long[sorted.size()];
+        long[] cumulativePoints = new long[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            Tier tier = sorted.get(i);
+            if (tier.getThreshold() < 0 || tier.getPointsPerDollar() < 0) {
+                throw new IllegalArgumentException("Tier threshold and points per dollar can not be negative: " + tier);
+            }
+            if (i > 0 && tier.getThreshold() == breakpoints[i - 1]) {
+                throw new IllegalArgumentException("Duplicated tier threshold: " + tier.getThreshold());
+            }
+            breakpoints[i] = tier.getThreshold();
+            pointsPerDollar[i] = tier.getPointsPerDollar();
+            cumulativePoints[i] = i == 0 ? 0 : cumulativePoints[i - 1]
+                    + (breakpoints[i] - breakpoints[i - 1]) * pointsPerDollar[i - 1];
+        }
+        return new TierTable(breakpoints, pointsPerDollar, cumulativePoints);
+    }
+
+    public long points(long cents) {
+        long dollars = cents / CENTS_PER_DOLLAR;
+        int tier = Arrays.binarySearch(breakpoints, dollars);
+        tier = tier >= 0 ? tier - 1 : -tier - 2;
+        if (tier < 0) {
+            return 0;
+        }
+        return cumulativePoints[tier] + (dollars - breakpoints[tier]) * pointsPerDollar[tier];
+    }
+
+    public int size() {
+        return breakpoints.length;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.validators;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Allows at most {@code limitPerSecond} rejection log lines per second and counts the suppressed ones, so a
+ * flood of bad transactions can not turn into a flood of log I/O.
+ */
+class RejectionLog {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final int limitPerSecond;
+    private final LongSupplier nanoTime;
+    private final AtomicLong windowStart;
+    private final AtomicLong loggedInWindow = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    RejectionLog(int limitPerSecond) {
+        this(limitPerSecond, System::nanoTime);
+    }
+
+    RejectionLog(int limitPerSecond, LongSupplier nanoTime) {
+        this.limitPerSecond = limitPerSecond;
+        this.nanoTime = nanoTime;
+        this.windowStart = new AtomicLong(nanoTime.getAsLong());
+    }
+
+    /**
+     * @return number of rejections suppressed since the last permitted one, or {@code -1} if this one must be
+     * suppressed too
+     */
+    long tryAcquire() {
+        long now = nanoTime.getAsLong();
+        long start = windowStart.get();
+        if (now - start >= SECOND && windowStart.compareAndSet(start, now)) {
+            loggedInWindow.set(0);
+        }
+        if (loggedInWindow.incrementAndGet() > limitPerSecond) {
+            suppressed.incrementAndGet();
+            return -1;
+        }
+        return suppressed.getAndSet(0);
+    }
+}
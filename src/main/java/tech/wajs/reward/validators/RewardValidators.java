@@ -5,20 +5,28 @@
 package tech.wajs.reward.validators;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
+import tech.wajs.reward.dto.CustomerTransactionsDTO;
 import tech.wajs.reward.dto.TransactionDTO;
+import tech.wajs.reward.dto.ViolationDTO;
 import tech.wajs.reward.exceptions.KnownException;
+import tech.wajs.reward.exceptions.ValidationException;
+import tech.wajs.reward.metrics.RewardMetrics;
 
 import java.math.BigDecimal;
-import java.time.ZonedDateTime;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
 @Slf4j
 public class RewardValidators {
+    public final static int MAX_AGE_IN_MONTHS = 3;
+    public final static int MAX_ID_LENGTH = 128;
+    private final static int DEFAULT_REJECTION_LOG_LIMIT = 100;
 
     public final static Validator<TransactionDTO> DATE_OR_COST_MISSING =
             new Validator<>("Cost or Date is missing.",
@@ -30,14 +38,58 @@ public class RewardValidators {
                     HttpStatus.UNPROCESSABLE_ENTITY,
                     t -> t.getCost().compareTo(BigDecimal.ZERO) < 0);
 
-    public final static Validator<TransactionDTO> TOO_OLD =
-            new Validator<>("Transaction is older than 3 months.",
+    public final static Validator<TransactionDTO> ID_TOO_LONG =
+            new Validator<>("Transaction id is longer than " + MAX_ID_LENGTH + " characters.",
                     HttpStatus.UNPROCESSABLE_ENTITY,
-                    t -> t.getTime().isBefore(ZonedDateTime.now().minusMonths(3)));
+                    t -> t.getId() != null && t.getId().length() > MAX_ID_LENGTH);
+
+    /** Time-dependent rules are checked by {@link ValidationContext}, against the injected clock. */
+    public final static String TOO_OLD_MESSAGE = tooOldMessage(MAX_AGE_IN_MONTHS);
+    public final static String FUTURE_MONTH_MESSAGE = "Transaction is in a future month.";
+    /** Tested on the customer ids of the first and of the current transaction. */
+    public final static Validator<long[]> MIXED_CUSTOMERS =
+            new Validator<>("All transactions must belong to one customer.",
+                    HttpStatus.UNPROCESSABLE_ENTITY,
+                    customerIds -> customerIds[0] != customerIds[1]);
+
     public final static Validator<List<TransactionDTO>> EMPTY_LIST =
             new Validator<>("List of transactions is empty.",
                     HttpStatus.UNPROCESSABLE_ENTITY,
                     CollectionUtils::isEmpty);
+    public final static Validator<Long> NO_TRANSACTIONS =
+            new Validator<>("List of transactions is empty.",
+                    HttpStatus.UNPROCESSABLE_ENTITY,
+                    count -> count == 0);
+    public final static Validator<List<CustomerTransactionsDTO>> EMPTY_BATCH =
+            new Validator<>("List of customers is empty.",
+                    HttpStatus.UNPROCESSABLE_ENTITY,
+                    CollectionUtils::isEmpty);
+    public final static Validator<Long> NO_CUSTOMERS =
+            new Validator<>("List of customers is empty.",
+                    HttpStatus.UNPROCESSABLE_ENTITY,
+                    count -> count == 0);
+    public final static Validator<CustomerTransactionsDTO> CUSTOMER_ID_MISSING =
+            new Validator<>("Customer id is missing.",
+                    HttpStatus.UNPROCESSABLE_ENTITY,
+                    c -> c == null || c.getCustomerId() == null);
+
+    private final RejectionLog rejectionLog;
+    private final RewardMetrics metrics;
+
+    public RewardValidators() {
+        this(DEFAULT_REJECTION_LOG_LIMIT, RewardMetrics.noop());
+    }
+
+    @Autowired
+    public RewardValidators(@Value("${reward.validation.rejection-log-limit:100}") int rejectionLogLimit,
+                            RewardMetrics metrics) {
+        this.rejectionLog = new RejectionLog(rejectionLogLimit);
+        this.metrics = metrics;
+    }
+
+    public static String tooOldMessage(int maxAgeInMonths) {
+        return "Transaction is older than " + maxAgeInMonths + " months.";
+    }
 
     public <T> void validate(T objectToValidate, List<Validator<T>> validators) {
         for (Validator<T> validator : validators) {
@@ -45,12 +97,55 @@ public class RewardValidators {
         }
     }
 
+    /**
+     * Checks every element in one pass and throws a single {@link ValidationException} listing each invalid element
+     * with the message of the first validator it failed. Later validators may rely on earlier ones, so an element
+     * is not tested further after its first failure.
+     */
+    public <T> void validateAll(List<T> objectsToValidate, List<Validator<T>> validators) {
+        List<ViolationDTO> violations = new ArrayList<>();
+        int index = 0;
+        for (T objectToValidate : objectsToValidate) {
+            for (Validator<T> validator : validators) {
+                if (validator.getPredicate().test(objectToValidate)) {
+                    violations.add(new ViolationDTO(index, validator.getMessage()));
+                    break;
+                }
+            }
+            index++;
+        }
+        if (!violations.isEmpty()) {
+            ValidationException validationException = new ValidationException(violations);
+            violations.forEach(violation -> metrics.recordRejection(violation.getMessage()));
+            logRejection(validationException);
+            throw validationException;
+        }
+    }
+
     public <T> void validate(T objectToValidate, Validator<T> validator) {
         if (validator.getPredicate().test(objectToValidate)) {
-            KnownException knownException = new KnownException(validator.getMessage(), validator.getResponseCode());
-            log.warn(knownException.getErrorId().toString());
-            Arrays.stream(Thread.currentThread().getStackTrace()).forEach(System.out::println);
-            throw knownException;
+            reject(validator);
+        }
+    }
+
+    /**
+     * Fails with the validator's message for a check the caller has already made, e.g. on primitive values.
+     */
+    public void reject(Validator<?> validator) {
+        KnownException knownException = new KnownException(validator.getMessage(), validator.getResponseCode());
+        metrics.recordRejection(validator.getMessage());
+        logRejection(knownException);
+        throw knownException;
+    }
+
+    private void logRejection(KnownException knownException) {
+        if (!log.isWarnEnabled()) {
+            return;
+        }
+        long suppressed = rejectionLog.tryAcquire();
+        if (suppressed >= 0) {
+            log.warn("Rejected: reason=\"{}\" status={} errorId={} suppressed={}", knownException.getMessage(),
+                    knownException.getResponseCode().value(), knownException.getErrorId(), suppressed);
         }
     }
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.validators;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import tech.wajs.reward.dto.TransactionDTO;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Time-dependent rules of one request, evaluated against a single reading of the clock. The look-back cutoff and
+ * the start of the next month are kept as epoch seconds, so checking a transaction reads no clock and allocates
+ * nothing.
+ */
+@Getter
+public class ValidationContext {
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private final ZonedDateTime now;
+    private final int maxAgeInMonths;
+    private final long cutoffEpochSecond;
+    private final int cutoffNano;
+    private final Validator<TransactionDTO> tooOld;
+    private final Validator<TransactionDTO> futureMonth;
+    private final List<Validator<TransactionDTO>> transactionValidators;
+
+    private ValidationContext(ZonedDateTime now, int maxAgeInMonths) {
+        this.now = now;
+        this.maxAgeInMonths = maxAgeInMonths;
+
+        ZonedDateTime cutoff = now.minusMonths(maxAgeInMonths);
+        this.cutoffEpochSecond = cutoff.toEpochSecond();
+        this.cutoffNano = cutoff.getNano();
+        this.tooOld = new Validator<>(RewardValidators.tooOldMessage(maxAgeInMonths),
+                HttpStatus.UNPROCESSABLE_ENTITY,
+                t -> isTooOld(t.getTime().toEpochSecond(), t.getTime().getNano()));
+
+        // local date-time of the transaction compared with local midnight starting the next month
+        long nextMonthStart = YearMonth.from(now).plusMonths(1).atDay(1).toEpochDay() * SECONDS_PER_DAY;
+        this.futureMonth = new Validator<>(RewardValidators.FUTURE_MONTH_MESSAGE,
+                HttpStatus.UNPROCESSABLE_ENTITY,
+                t -> t.getTime().toEpochSecond() + t.getTime().getOffset().getTotalSeconds() >= nextMonthStart);
+
+        this.transactionValidators = List.of(RewardValidators.DATE_OR_COST_MISSING, RewardValidators.NEGATIVE_COST,
+                tooOld);
+    }
+
+    public static ValidationContext of(Clock clock, int maxAgeInMonths) {
+        return new ValidationContext(ZonedDateTime.now(clock), maxAgeInMonths);
+    }
+
+    public boolean isTooOld(long epochSecond, int nano) {
+        return epochSecond < cutoffEpochSecond || epochSecond == cutoffEpochSecond && nano < cutoffNano;
+    }
+
+    public YearMonth getCurrentMonth() {
+        return YearMonth.from(now);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.admission;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import tech.wajs.reward.metrics.RewardMetrics;
+
+import javax.servlet.FilterChain;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTest {
+
+    private static final String PATH = "/api/calculate-reward";
+
+    MeterRegistry registry = new SimpleMeterRegistry();
+    AdmissionBudget endpointBudget = new AdmissionBudget(1_000);
+    AdmissionBudget totalBudget = new AdmissionBudget(1_500);
+    AdmissionControlFilter filter = new AdmissionControlFilter(
+            Map.of(PATH, new AdmissionControlFilter.Endpoint(PATH, endpointBudget),
+                    "/api/calculate-reward/stream",
+                    new AdmissionControlFilter.Endpoint("/api/calculate-reward/stream", new AdmissionBudget(1_000))),
+            totalBudget, new RewardMetrics(registry), new JsonMapper());
+
+    @Test
+    void shouldRejectWith429WhenEndpointBudgetIsUsedUp() throws Exception {
+        //given
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+        FilterChain chain = (request, response) -> filter.doFilter(request(PATH, 600), nested, (rq, rs) -> {
+        });
+
+        //when
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(PATH, 600), response, chain);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(nested.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(nested.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(endpointBudget.getInFlight()).isZero();
+        assertThat(registry.get("reward.admission").tag("decision", AdmissionControlFilter.REJECTED_ENDPOINT)
+                           .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectWith503WhenTotalBudgetIsUsedUp() throws Exception {
+        //given
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+        FilterChain chain = (request, response) ->
+                filter.doFilter(request("/api/calculate-reward/stream", 600), nested, (rq, rs) -> {
+                });
+
+        //when
+        filter.doFilter(request(PATH, 1_000), new MockHttpServletResponse(), chain);
+
+        //then
+        assertThat(nested.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+        assertThat(totalBudget.getInFlight()).isZero();
+    }
+
+    @Test
+    void shouldAdmitRequestLargerThanBudgetWhenNothingElseIsInFlight() throws Exception {
+        //given
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        long[] inFlight = new long[1];
+
+        //when
+        filter.doFilter(request(PATH, 5_000), response, (rq, rs) -> inFlight[0] = endpointBudget.getInFlight());
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(inFlight[0]).isEqualTo(1_000);
+        assertThat(endpointBudget.getInFlight()).isZero();
+    }
+
+    @Test
+    void shouldChargeWholeEndpointBudgetWhenContentLengthIsUnknown() throws Exception {
+        //given
+        MockHttpServletRequest chunked = new MockHttpServletRequest("POST", PATH);
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+        long[] inFlight = new long[1];
+        FilterChain chain = (request, response) -> {
+            inFlight[0] = endpointBudget.getInFlight();
+            filter.doFilter(request(PATH, 1), nested, (rq, rs) -> {
+            });
+        };
+
+        //when
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(chunked, response, chain);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(inFlight[0]).isEqualTo(1_000);
+        assertThat(nested.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(endpointBudget.getInFlight()).isZero();
+    }
+
+    @Test
+    void shouldNotLimitOtherPaths() throws Exception {
+        //given
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        long[] inFlight = new long[1];
+
+        //when
+        filter.doFilter(request("/api/calculate-reward/cache", 5_000), response,
+                (rq, rs) -> inFlight[0] = totalBudget.getInFlight());
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(inFlight[0]).isZero();
+    }
+
+    private MockHttpServletRequest request(String path, int contentLength) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setContent(new byte[contentLength]);
+        return request;
+    }
+}
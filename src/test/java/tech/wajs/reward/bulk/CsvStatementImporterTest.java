@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.bulk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.wajs.reward.dto.CustomerRewardDTO;
+import tech.wajs.reward.dto.MonthlyRewardDTO;
+import tech.wajs.reward.programs.RewardProgram;
+import tech.wajs.reward.validators.RewardValidators;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CsvStatementImporterTest {
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2022-11-20T12:00:00Z"), ZoneOffset.UTC);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldAggregateRowsPerCustomerAndMonth() throws Exception {
+        //given
+        Path file = write("""
+                customerId,time,cost
+                1,2022-11-02T10:00:00Z,120.00
+                2,"2022-10-31T23:30:00-02:00","75"
+                1,1665000000,120.999\r
+                
+                1,2022-11-15T10:00:00Z,75.5
+                """);
+
+        //when
+        ImportResult result = importer(2, 1024).importFile(file);
+
+        //then
+        assertThat(result.isHeader()).isTrue();
+        assertThat(result.getRows()).isEqualTo(4);
+        assertThat(result.getMalformedRows()).isZero();
+        assertThat(result.getCustomers()).extracting(CustomerRewardDTO::getCustomerId).containsExactly(1L, 2L);
+        assertThat(result.getCustomers().get(0).getReward().getMonthlyRewards())
+                .extracting(MonthlyRewardDTO::getYear, MonthlyRewardDTO::getMonth, MonthlyRewardDTO::getPoints)
+                .containsExactlyInAnyOrder(
+                        tuple(2022, 11, 115),
+                        tuple(2022, 10, 90));
+        assertThat(result.getCustomers().get(1).getReward().getMonthlyRewards())
+                .extracting(MonthlyRewardDTO::getYear, MonthlyRewardDTO::getMonth, MonthlyRewardDTO::getPoints)
+                .containsExactly(tuple(2022, 10, 25));
+    }
+
+    @Test
+    void shouldReadQuotedFirstRowOfFileWithoutHeader() throws Exception {
+        //given
+        Path file = write("""
+                "1","2022-11-02T10:00:00Z","120.00"
+                2,2022-11-02T10:00:00Z,75
+                """);
+
+        //when
+        ImportResult result = importer(1, 1024).importFile(file);
+
+        //then
+        assertThat(result.isHeader()).isFalse();
+        assertThat(result.getRows()).isEqualTo(2);
+        assertThat(result.getMalformedRows()).isZero();
+        assertThat(result.getCustomers()).extracting(customer -> customer.getReward().getTotalPoints())
+                .containsExactly(90, 25);
+    }
+
+    @Test
+    void shouldMergeCustomersSplitAcrossChunks() throws Exception {
+        //given
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            csv.append(i % 7).append(",2022-11-02T10:00:00Z,120.00\n");
+        }
+        Path file = write(csv.toString());
+
+        //when
+        ImportResult result = importer(4, 100).importFile(file);
+
+        //then
+        assertThat(result.getRows()).isEqualTo(1000);
+        assertThat(result.getCustomers()).hasSize(7);
+        assertThat(result.getCustomers()).extracting(customer -> customer.getReward().getTotalPoints())
+                .containsExactly(143 * 90, 143 * 90, 143 * 90, 143 * 90, 143 * 90, 143 * 90, 142 * 90);
+    }
+
+    @Test
+    void shouldReportInvalidCustomerAndSkipMalformedRows() throws Exception {
+        //given
+        Path file = write("""
+                1,2022-11-02T10:00:00Z,120.00
+                1,2022-11-03T10:00:00Z,-1.00
+                2,2021-01-01T00:00:00Z,120.00
+                3,yesterday,120.00
+                3,2022-11-02T10:00:00Z
+                3,2022-11-02T10:00:00Z,12a
+                """);
+
+        //when
+        ImportResult result = importer(1, 1024).importFile(file);
+
+        //then
+        assertThat(result.getRows()).isEqualTo(3);
+        assertThat(result.getMalformedRows()).isEqualTo(3);
+        assertThat(result.getFirstMalformedOffset()).isEqualTo(Files.readString(file).indexOf("3,yesterday"));
+        assertThat(result.getCustomers()).extracting(CustomerRewardDTO::getCustomerId, CustomerRewardDTO::getError)
+                .containsExactly(
+                        tuple(1L, RewardValidators.NEGATIVE_COST.getMessage()),
+                        tuple(2L, "Transaction is older than 3 months."));
+    }
+
+    @Test
+    void shouldFailOnlyCustomerWithMillisecondTimestamp() throws Exception {
+        //given
+        Path file = write("""
+                1,2022-11-02T10:00:00Z,120.00
+                1,1667383200000,120.00
+                2,2022-11-02T10:00:00Z,120.00
+                3,999999999999999999,120.00
+                """);
+
+        //when
+        ImportResult result = importer(1, 1024).importFile(file);
+
+        //then
+        assertThat(result.getRows()).isEqualTo(4);
+        assertThat(result.getCustomers()).extracting(CustomerRewardDTO::getCustomerId, CustomerRewardDTO::getError)
+                .containsExactly(
+                        tuple(1L, "Transactions can not span more than 100 years."),
+                        tuple(2L, null),
+                        tuple(3L, CsvStatementImporter.TIME_OUT_OF_RANGE));
+        assertThat(result.getCustomers().get(1).getReward().getTotalPoints()).isEqualTo(90);
+    }
+
+    private CsvStatementImporter importer(int threads, long chunkSize) {
+        return new CsvStatementImporter(RewardProgram.DEFAULT, new RewardValidators(), CLOCK, threads, chunkSize);
+    }
+
+    private Path write(String csv) throws Exception {
+        Path file = directory.resolve("statement.csv");
+        Files.writeString(file, csv);
+        return file;
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.cache;
+
+import org.junit.jupiter.api.Test;
+import tech.wajs.reward.dto.CacheStatsDTO;
+import tech.wajs.reward.dto.RewardDTO;
+import tech.wajs.reward.dto.TransactionDTO;
+import tech.wajs.reward.programs.RewardProgram;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RewardResultCacheTest {
+
+    private final ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+    private final RewardProgram program = RewardProgram.DEFAULT;
+    private final AtomicInteger calculations = new AtomicInteger();
+    private final Function<List<TransactionDTO>, RewardDTO> calculation = transactions -> {
+        calculations.incrementAndGet();
+        return new RewardDTO(Set.of(), transactions.size());
+    };
+
+    @Test
+    void shouldReturnCachedRewardForEquivalentList() {
+        //given
+        RewardResultCache cache = new RewardResultCache(Clock.systemDefaultZone(), true, 10, Duration.ofMinutes(5));
+        RewardDTO first = cache.getOrCalculate(List.of(t("120", now), t("20", now.minusDays(1))),
+                program, calculation);
+
+        //when
+        RewardDTO second = cache.getOrCalculate(List.of(t("20.00", now.minusDays(1)),
+                t("120", now.withZoneSameInstant(ZoneId.of("Z")))), program, calculation);
+
+        //then
+        assertThat(second).isSameAs(first);
+        assertThat(calculations.get()).isEqualTo(1);
+        CacheStatsDTO stats = cache.getStats();
+        assertThat(stats.getHits()).isEqualTo(1);
+        assertThat(stats.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCalculateAgainForDifferentList() {
+        //given
+        RewardResultCache cache = new RewardResultCache(Clock.systemDefaultZone(), true, 10, Duration.ofMinutes(5));
+        cache.getOrCalculate(List.of(t("120", now)), program, calculation);
+
+        //when
+        cache.getOrCalculate(List.of(t("121", now)), program, calculation);
+
+        //then
+        assertThat(calculations.get()).isEqualTo(2);
+        assertThat(cache.getStats().getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntry() {
+        //given
+        RewardResultCache cache = new RewardResultCache(Clock.systemDefaultZone(), true, 2, Duration.ofMinutes(5));
+        List<TransactionDTO> first = List.of(t("1", now));
+        cache.getOrCalculate(first, program, calculation);
+        cache.getOrCalculate(List.of(t("2", now)), program, calculation);
+        cache.getOrCalculate(first, program, calculation);
+
+        //when
+        cache.getOrCalculate(List.of(t("3", now)), program, calculation);
+        cache.getOrCalculate(first, program, calculation);
+
+        //then
+        assertThat(calculations.get()).isEqualTo(3);
+        assertThat(cache.getStats().getEvictions()).isEqualTo(1);
+        assertThat(cache.getStats().getSize()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotShareEntriesBetweenPrograms() {
+        //given
+        RewardResultCache cache = new RewardResultCache(Clock.systemDefaultZone(), true, 10, Duration.ofMinutes(5));
+        List<TransactionDTO> transactions = List.of(t("120", now));
+        cache.getOrCalculate(transactions, program, calculation);
+
+        //when
+        cache.getOrCalculate(transactions, new RewardProgram("reloaded", program.getTierTable(), 3), calculation);
+
+        //then
+        assertThat(calculations.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotCacheWhenDisabled() {
+        //given
+        RewardResultCache cache = new RewardResultCache(Clock.systemDefaultZone(), false, 10, Duration.ofMinutes(5));
+        List<TransactionDTO> transactions = List.of(t("120", now));
+
+        //when
+        cache.getOrCalculate(transactions, program, calculation);
+        cache.getOrCalculate(transactions, program, calculation);
+
+        //then
+        assertThat(calculations.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldExpireBeforeOldestTransactionIsTooOld() {
+        //given
+        ZonedDateTime systemNow = ZonedDateTime.now();
+        Instant instant = systemNow.toInstant();
+        ZonedDateTime oldest = systemNow.minusMonths(3).plusMinutes(1);
+
+        //when
+        Instant expiresAt = RewardResultCache.expiresAt(oldest, instant, ZoneId.systemDefault(),
+                Duration.ofMinutes(5), 3);
+
+        //then
+        assertThat(expiresAt).isBeforeOrEqualTo(instant.plus(Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void shouldExpireAfterTtlForRecentTransactions() {
+        //given
+        Instant instant = now.toInstant();
+
+        //when
+        Instant expiresAt = RewardResultCache.expiresAt(now, instant, ZoneOffset.UTC, Duration.ofMinutes(5), 3);
+
+        //then
+        assertThat(expiresAt).isEqualTo(instant.plus(Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void shouldExpireEntryByInjectedClock() {
+        //given
+        MutableClock clock = new MutableClock(now.toInstant(), ZoneOffset.UTC);
+        RewardResultCache cache = new RewardResultCache(clock, true, 10, Duration.ofMinutes(5));
+        List<TransactionDTO> transactions = List.of(t("120", now));
+        cache.getOrCalculate(transactions, program, calculation);
+
+        //when
+        clock.advance(Duration.ofMinutes(4));
+        cache.getOrCalculate(transactions, program, calculation);
+        clock.advance(Duration.ofMinutes(1));
+        cache.getOrCalculate(transactions, program, calculation);
+
+        //then
+        assertThat(calculations.get()).isEqualTo(2);
+        assertThat(cache.getStats().getHits()).isEqualTo(1);
+    }
+
+    private TransactionDTO t(String cost, ZonedDateTime time) {
+        return new TransactionDTO(new BigDecimal(cost), time);
+    }
+
+    private static class MutableClock extends Clock {
+        private final ZoneId zone;
+        private Instant instant;
+
+        MutableClock(Instant instant, ZoneId zone) {
+            this.instant = instant;
+            this.zone = zone;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new MutableClock(instant, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import tech.wajs.reward.dto.CustomerRewardDTO;
+import tech.wajs.reward.validators.RewardValidators;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BatchRewardControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    private final ObjectMapper MAPPER = new JsonMapper();
+
+    @BeforeEach
+    void setUp() {
+        MAPPER.findAndRegisterModules(); // because: `java.time.ZonedDateTime` not supported by default
+    }
+
+    @Test
+    void shouldReturnRewardForEachCustomerAndErrorForInvalidOne() throws Exception {
+        //given
+        String json = """
+                  [
+                  {
+                    "customerId": 1,
+                    "transactions": [{"cost": "120", "time": "%s"}]
+                  },
+                  {
+                    "customerId": 2,
+                    "transactions": [{"cost": "-120", "time": "%s"}]
+                  }
+                  ]
+                """.formatted(ZonedDateTime.now().toString(), ZonedDateTime.now().toString());
+
+        //when
+        MockHttpServletResponse response = callBatchEndpoint(json);
+        List<CustomerRewardDTO> responseObject = MAPPER.readValue(response.getContentAsString(),
+                new TypeReference<>() {
+                });
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(responseObject).hasSize(2);
+        assertThat(responseObject.get(0).getCustomerId()).isEqualTo(1L);
+        assertThat(responseObject.get(0).getReward().getTotalPoints()).isEqualTo(90);
+        assertThat(responseObject.get(1).getCustomerId()).isEqualTo(2L);
+        assertThat(responseObject.get(1).getError()).isEqualTo(RewardValidators.NEGATIVE_COST.getMessage());
+    }
+
+    @Test
+    void shouldReturnErrorForNullCustomerAndRewardForOthers() throws Exception {
+        //given
+        String json = """
+                  [
+                  null,
+                  {
+                    "customerId": 1,
+                    "transactions": [{"cost": "120", "time": "%s"}]
+                  }
+                  ]
+                """.formatted(ZonedDateTime.now().toString());
+
+        //when
+        MockHttpServletResponse response = callBatchEndpoint(json);
+        List<CustomerRewardDTO> responseObject = MAPPER.readValue(response.getContentAsString(),
+                new TypeReference<>() {
+                });
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(responseObject).hasSize(2);
+        assertThat(responseObject.get(0).getCustomerId()).isNull();
+        assertThat(responseObject.get(0).getError()).isEqualTo(RewardValidators.CUSTOMER_ID_MISSING.getMessage());
+        assertThat(responseObject.get(1).getCustomerId()).isEqualTo(1L);
+        assertThat(responseObject.get(1).getReward().getTotalPoints()).isEqualTo(90);
+    }
+
+    @Test
+    void shouldReturn422WhenNoCustomer() throws Exception {
+        //when
+        MockHttpServletResponse response = callBatchEndpoint("[]");
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(RewardValidators.EMPTY_BATCH.getResponseCode().value());
+        assertThat(response.getContentAsString()).contains(RewardValidators.EMPTY_BATCH.getMessage());
+    }
+
+    @Test
+    void shouldStreamOneJsonLinePerCustomer() throws Exception {
+        //given
+        String json = """
+                  [
+                  {
+                    "customerId": 1,
+                    "transactions": [{"cost": "120", "time": "%s"}]
+                  },
+                  {
+                    "customerId": 2,
+                    "transactions": [{"cost": "-120", "time": "%s"}]
+                  }
+                  ]
+                """.formatted(ZonedDateTime.now().toString(), ZonedDateTime.now().toString());
+
+        //when
+        MvcResult asyncResult = mockMvc.perform(MockMvcRequestBuilders
+                                               .post("/api/calculate-reward/batch/stream")
+                                               .contentType(MediaType.APPLICATION_JSON)
+                                               .accept(MediaType.APPLICATION_NDJSON)
+                                               .content(json))
+                                       .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                                       .andReturn();
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult))
+                                                  .andReturn().getResponse();
+        List<CustomerRewardDTO> lines = new ArrayList<>();
+        for (String line : response.getContentAsString().split("\n")) {
+            lines.add(MAPPER.readValue(line, CustomerRewardDTO.class));
+        }
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentType()).startsWith(MediaType.APPLICATION_NDJSON_VALUE);
+        assertThat(lines).extracting(CustomerRewardDTO::getCustomerId).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void shouldReturn422WhenStreamHasNoCustomer() throws Exception {
+        //given
+        String json = "[]";
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders
+                                                          .post("/api/calculate-reward/batch/stream")
+                                                          .contentType(MediaType.APPLICATION_JSON)
+                                                          .accept(MediaType.APPLICATION_NDJSON)
+                                                          .content(json))
+                                                  .andExpect(MockMvcResultMatchers.request().asyncNotStarted())
+                                                  .andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(RewardValidators.NO_CUSTOMERS.getResponseCode().value());
+        assertThat(response.getContentType()).startsWith(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(response.getContentAsString()).contains(RewardValidators.NO_CUSTOMERS.getMessage());
+    }
+
+    @Test
+    void shouldApplyStreamTimeoutToStreamingRequest() throws Exception {
+        //given
+        String json = """
+                  [
+                  {
+                    "customerId": 1,
+                    "transactions": [{"cost": "120", "time": "%s"}]
+                  }
+                  ]
+                """.formatted(ZonedDateTime.now().toString());
+
+        //when
+        MvcResult asyncResult = mockMvc.perform(MockMvcRequestBuilders
+                                               .post("/api/calculate-reward/batch/stream")
+                                               .contentType(MediaType.APPLICATION_JSON)
+                                               .accept(MediaType.APPLICATION_NDJSON)
+                                               .content(json))
+                                       .andReturn();
+
+        //then
+        assertThat(asyncResult.getRequest().getAsyncContext().getTimeout())
+                .isEqualTo(Duration.ofMinutes(10).toMillis());
+    }
+
+    private MockHttpServletResponse callBatchEndpoint(String json) throws Exception {
+
+        return mockMvc.perform(MockMvcRequestBuilders
+                              .post("/api/calculate-reward/batch")
+                              .contentType(MediaType.APPLICATION_JSON)
+                              .content(json))
+                      .andReturn().getResponse();
+    }
+}
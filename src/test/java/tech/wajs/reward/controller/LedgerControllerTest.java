@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import tech.wajs.reward.dto.RewardDTO;
+
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "reward.ledger.enabled=true")
+@AutoConfigureMockMvc
+class LedgerControllerTest {
+
+    @TempDir
+    static Path directory;
+
+    @Autowired
+    private MockMvc mockMvc;
+    private final ObjectMapper MAPPER = new JsonMapper();
+
+    @DynamicPropertySource
+    static void ledgerDirectory(DynamicPropertyRegistry registry) {
+        registry.add("reward.ledger.directory", () -> directory.toString());
+    }
+
+    @BeforeEach
+    void setUp() {
+        MAPPER.findAndRegisterModules(); // because: `java.time.ZonedDateTime` not supported by default
+    }
+
+    @Test
+    void shouldAccumulatePointsFromSeparateCalls() throws Exception {
+        //given
+        String json = """
+                  [
+                  {
+                    "cost": "120",
+                    "time": "%s"
+                  }
+                  ]
+                """.formatted(ZonedDateTime.now().toString());
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/customers/7/transactions")
+                                              .contentType(MediaType.APPLICATION_JSON)
+                                              .content(json));
+
+        //when
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/customers/7/transactions")
+                                              .contentType(MediaType.APPLICATION_JSON)
+                                              .content(json));
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.get("/api/customers/7/reward"))
+                                                  .andReturn().getResponse();
+        RewardDTO responseObject = MAPPER.readValue(response.getContentAsString(), RewardDTO.class);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(responseObject.getTotalPoints()).isEqualTo(2 * 90);
+    }
+
+    @Test
+    void shouldReturn404WhenCustomerIsUnknown() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.get("/api/customers/404/reward"))
+                                                  .andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_FOUND.value());
+    }
+}
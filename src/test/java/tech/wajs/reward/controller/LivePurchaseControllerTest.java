@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import tech.wajs.reward.dto.PeriodRewardDTO;
+import tech.wajs.reward.dto.RewardDTO;
+
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"reward.live.enabled=true", "reward.live.drain-interval=PT0.01S",
+        "reward.live.daily-index.enabled=true"})
+@AutoConfigureMockMvc
+class LivePurchaseControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    private final ObjectMapper MAPPER = new JsonMapper();
+
+    @BeforeEach
+    void setUp() {
+        MAPPER.findAndRegisterModules(); // because: `java.time.ZonedDateTime` not supported by default
+    }
+
+    @Test
+    void shouldAcceptPurchasesAndReturnDrainedReward() throws Exception {
+        //given
+        String json = """
+                  {
+                    "cost": "120",
+                    "time": "%s"
+                  }
+                """.formatted(ZonedDateTime.now().toString());
+
+        //when
+        MockHttpServletResponse first = post("/api/live/customers/7/purchases", json);
+        post("/api/live/customers/7/purchases", json);
+        MockHttpServletResponse response = awaitReward("/api/live/customers/7/reward", 2 * 90);
+        RewardDTO responseObject = MAPPER.readValue(response.getContentAsString(), RewardDTO.class);
+
+        //then
+        assertThat(first.getStatus()).isEqualTo(HttpStatus.ACCEPTED.value());
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(responseObject.getTotalPoints()).isEqualTo(2 * 90);
+    }
+
+    @Test
+    void shouldReturnPointsOfLastDays() throws Exception {
+        //given
+        String json = """
+                  {
+                    "cost": "120",
+                    "time": "%s"
+                  }
+                """.formatted(ZonedDateTime.now().toString());
+        post("/api/live/customers/10/purchases", json);
+        awaitReward("/api/live/customers/10/reward", 90);
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(
+                MockMvcRequestBuilders.get("/api/live/customers/10/points?last=P1D&period=total"))
+                                                  .andReturn().getResponse();
+        PeriodRewardDTO[] responseObject = MAPPER.readValue(response.getContentAsString(), PeriodRewardDTO[].class);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(responseObject).hasSize(1);
+        assertThat(responseObject[0].getPoints()).isEqualTo(90);
+    }
+
+    @Test
+    void shouldRejectInvalidPurchase() throws Exception {
+        //given
+        String json = """
+                  {
+                    "cost": "-1",
+                    "time": "%s"
+                  }
+                """.formatted(ZonedDateTime.now().toString());
+
+        //when
+        MockHttpServletResponse response = post("/api/live/customers/8/purchases", json);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY.value());
+    }
+
+    @Test
+    void shouldRejectLeaderboardWithoutEntries() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.get("/api/live/leaderboard?limit=0"))
+                                                  .andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    void shouldReturn404WhenCustomerIsUnknown() throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.get("/api/live/customers/9/reward"))
+                                                  .andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_FOUND.value());
+    }
+
+    private MockHttpServletResponse post(String path, String json) throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.post(path)
+                                                     .contentType(MediaType.APPLICATION_JSON)
+                                                     .content(json))
+                      .andReturn().getResponse();
+    }
+
+    private MockHttpServletResponse awaitReward(String path, int totalPoints) throws Exception {
+        MockHttpServletResponse response = null;
+        for (int attempt = 0; attempt < 100; attempt++) {
+            response = mockMvc.perform(MockMvcRequestBuilders.get(path)).andReturn().getResponse();
+            if (response.getStatus() == HttpStatus.OK.value() && totalPoints
+                    == MAPPER.readValue(response.getContentAsString(), RewardDTO.class).getTotalPoints()) {
+                return response;
+            }
+            Thread.sleep(20);
+        }
+        return response;
+    }
+}
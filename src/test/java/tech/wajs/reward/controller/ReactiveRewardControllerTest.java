@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import tech.wajs.reward.dto.RewardDTO;
+import tech.wajs.reward.validators.RewardValidators;
+
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@AutoConfigureWebTestClient
+class ReactiveRewardControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void shouldReturn180PointsWhenSpendTwoTimes120() {
+        //given
+        String json = """
+                  [
+                  {
+                    "cost": "120",
+                    "time": "%1$s"
+                  },
+                  {
+                    "cost": "120",
+                    "time": "%1$s"
+                  }
+                  ]
+                """.formatted(ZonedDateTime.now().toString());
+
+        //when
+        RewardDTO reward = callEndpoint(MediaType.APPLICATION_JSON, json)
+                .expectStatus().isOk()
+                .expectBody(RewardDTO.class)
+                .returnResult().getResponseBody();
+
+        //then
+        assertThat(reward.getTotalPoints()).isEqualTo(180);
+    }
+
+    @Test
+    void shouldAcceptNewlineDelimitedJson() {
+        //given
+        String ndjson = """
+                {"cost": "120", "time": "%1$s"}
+                {"cost": "65", "time": "%1$s"}
+                """.formatted(ZonedDateTime.now().toString());
+
+        //when
+        RewardDTO reward = callEndpoint(MediaType.APPLICATION_NDJSON, ndjson)
+                .expectStatus().isOk()
+                .expectBody(RewardDTO.class)
+                .returnResult().getResponseBody();
+
+        //then
+        assertThat(reward.getTotalPoints()).isEqualTo(90 + 15);
+    }
+
+    @Test
+    void shouldReturn422WhenTransactionIsOlderThan3Months() {
+        //given
+        String json = """
+                  [
+                  {
+                    "cost": "120",
+                    "time": "%s"
+                  }
+                  ]
+                """.formatted(ZonedDateTime.now().minusMonths(4).toString());
+
+        //when
+        //then
+        callEndpoint(MediaType.APPLICATION_JSON, json)
+                .expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY)
+                .expectBody(String.class)
+                .value(body -> assertThat(body).contains(RewardValidators.TOO_OLD_MESSAGE));
+    }
+
+    private WebTestClient.ResponseSpec callEndpoint(MediaType contentType, String body) {
+
+        return webTestClient.post()
+                            .uri("/api/calculate-reward/reactive")
+                            .contentType(contentType)
+                            .bodyValue(body)
+                            .exchange();
+    }
+}
@@ -6,11 +6,15 @@ package tech.wajs.reward.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletResponse;
@@ -18,20 +22,33 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import tech.wajs.reward.dto.RewardDTO;
 import tech.wajs.reward.dto.TransactionDTO;
+import tech.wajs.reward.dto.ValidationErrorDTO;
+import tech.wajs.reward.dto.ViolationDTO;
+import tech.wajs.reward.ingest.BinaryTransactionReader;
 import tech.wajs.reward.validators.RewardValidators;
+import tech.wajs.reward.validators.ValidationContext;
 import tech.wajs.reward.validators.Validator;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 @SpringBootTest
 @AutoConfigureMockMvc
 class RewardControllerTest {
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2022-11-20T12:00:00Z"), ZoneOffset.UTC);
 
     @Autowired
     private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
     private final ObjectMapper MAPPER = new JsonMapper();
 
     @BeforeEach
@@ -49,7 +66,7 @@ class RewardControllerTest {
                     "time": "%s"
                   }
                   ]
-                """.formatted(ZonedDateTime.now().toString());
+                """.formatted(ZonedDateTime.now(CLOCK).toString());
         //when
         MockHttpServletResponse response = callCalculateRewardEndpoint(json);
         RewardDTO responseObject = MAPPER.readValue(response.getContentAsString(), RewardDTO.class);
@@ -73,7 +90,7 @@ class RewardControllerTest {
                     "time": "%s"
                   }
                   ]
-                """.formatted(ZonedDateTime.now().toString(), ZonedDateTime.now().minusMonths(2).toString());
+                """.formatted(ZonedDateTime.now(CLOCK).toString(), ZonedDateTime.now(CLOCK).minusMonths(2).toString());
         //when
         MockHttpServletResponse response = callCalculateRewardEndpoint(json);
         RewardDTO responseObject = MAPPER.readValue(response.getContentAsString(), RewardDTO.class);
@@ -115,7 +132,7 @@ class RewardControllerTest {
                     "time": "%s"
                   }
                   ]
-                """.formatted(ZonedDateTime.now().toString());
+                """.formatted(ZonedDateTime.now(CLOCK).toString());
 
         //when
         MockHttpServletResponse response = callCalculateRewardEndpoint(json);
@@ -136,7 +153,7 @@ class RewardControllerTest {
                     "time": "%s"
                   }
                   ]
-                """.formatted(ZonedDateTime.now().toString());
+                """.formatted(ZonedDateTime.now(CLOCK).toString());
 
         //when
         MockHttpServletResponse response = callCalculateRewardEndpoint(json);
@@ -149,7 +166,8 @@ class RewardControllerTest {
     @Test
     void shouldReturn422WhenTransactionIsOlderThan3Months() throws Exception {
         //given
-        Validator<TransactionDTO> expectedError = RewardValidators.TOO_OLD;
+        Validator<TransactionDTO> expectedError =
+                ValidationContext.of(CLOCK, RewardValidators.MAX_AGE_IN_MONTHS).getTooOld();
         String json = """
                   [
                   {
@@ -157,7 +175,7 @@ class RewardControllerTest {
                     "time": "%s"
                   }
                   ]
-                """.formatted(ZonedDateTime.now().minusMonths(3).minusNanos(1).toString());
+                """.formatted(ZonedDateTime.now(CLOCK).minusMonths(3).minusNanos(1).toString());
 
         //when
         MockHttpServletResponse response = callCalculateRewardEndpoint(json);
@@ -184,18 +202,289 @@ class RewardControllerTest {
         assertThat(response.getContentAsString()).contains(RewardValidators.EMPTY_LIST.getMessage());
     }
 
+    @Test
+    void shouldReturn180PointsWhenStreamingTwoTimes120() throws Exception {
+        //given
+        String json = """
+                  [
+                  {
+                    "cost": "120",
+                    "time": "%s"
+                  },
+                  {
+                    "cost": "120",
+                    "time": "%s"
+                  }
+                  ]
+                """.formatted(ZonedDateTime.now(CLOCK).toString(), ZonedDateTime.now(CLOCK).minusMonths(2).toString());
+        //when
+        MockHttpServletResponse response = callEndpoint("/api/calculate-reward/stream", json);
+        RewardDTO responseObject = MAPPER.readValue(response.getContentAsString(), RewardDTO.class);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(responseObject.getMonthlyRewards().size()).isEqualTo(2);
+        assertThat(responseObject.getTotalPoints()).isEqualTo(2*90);
+    }
+
+    @Test
+    void shouldReturn422WhenStreamingTransactionIsOlderThan3Months() throws Exception {
+        //given
+        Validator<TransactionDTO> expectedError =
+                ValidationContext.of(CLOCK, RewardValidators.MAX_AGE_IN_MONTHS).getTooOld();
+        String json = """
+                  [
+                  {
+                    "cost": "120",
+                    "time": "%s"
+                  }
+                  ]
+                """.formatted(ZonedDateTime.now(CLOCK).minusMonths(3).minusNanos(1).toString());
+
+        //when
+        MockHttpServletResponse response = callEndpoint("/api/calculate-reward/stream", json);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(expectedError.getResponseCode().value());
+        assertThat(response.getContentAsString()).contains(expectedError.getMessage());
+    }
+
+    @Test
+    void shouldReturn422WhenStreamingNoTransaction() throws Exception {
+        //given
+        Validator<Long> expectedError = RewardValidators.NO_TRANSACTIONS;
+        String json = """
+                  [
+                  ]
+                """;
+
+        //when
+        MockHttpServletResponse response = callEndpoint("/api/calculate-reward/stream", json);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(expectedError.getResponseCode().value());
+        assertThat(response.getContentAsString()).contains(expectedError.getMessage());
+    }
+
+    @Test
+    void shouldReturn404WhenProgramIsUnknown() throws Exception {
+        //given
+        String json = """
+                  [
+                  {
+                    "cost": "120",
+                    "time": "%s"
+                  }
+                  ]
+                """.formatted(ZonedDateTime.now(CLOCK).toString());
+
+        //when
+        MockHttpServletResponse response = callEndpoint("/api/calculate-reward?program=unknown", json);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_FOUND.value());
+    }
+
+    @Test
+    void shouldUseDefaultProgramWhenRequested() throws Exception {
+        //given
+        String json = """
+                  [
+                  {
+                    "cost": "120",
+                    "time": "%s"
+                  }
+                  ]
+                """.formatted(ZonedDateTime.now(CLOCK).toString());
+
+        //when
+        MockHttpServletResponse response = callEndpoint("/api/calculate-reward?program=default", json);
+        RewardDTO responseObject = MAPPER.readValue(response.getContentAsString(), RewardDTO.class);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(responseObject.getTotalPoints()).isEqualTo(90);
+    }
+
+    @Test
+    void shouldReturnAllViolationsWhenValidationModeIsAll() throws Exception {
+        //given
+        String json = """
+                  [
+                  {
+                    "cost": "120",
+                    "time": "%1$s"
+                  },
+                  {
+                    "cost": "-1",
+                    "time": "%1$s"
+                  },
+                  {
+                    "cost": "120"
+                  }
+                  ]
+                """.formatted(ZonedDateTime.now(CLOCK).toString());
+
+        //when
+        MockHttpServletResponse response = callEndpoint("/api/calculate-reward?validation=all", json);
+        ValidationErrorDTO responseObject = MAPPER.readValue(response.getContentAsString(), ValidationErrorDTO.class);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY.value());
+        assertThat(responseObject.getViolations())
+                .extracting(ViolationDTO::getIndex, ViolationDTO::getMessage)
+                .containsExactly(tuple(1, RewardValidators.NEGATIVE_COST.getMessage()),
+                        tuple(2, RewardValidators.DATE_OR_COST_MISSING.getMessage()));
+    }
+
+    @Test
+    void shouldReturn400WhenValidationModeIsUnknown() throws Exception {
+        //given
+        String json = """
+                  [
+                  {
+                    "cost": "120",
+                    "time": "%s"
+                  }
+                  ]
+                """.formatted(ZonedDateTime.now(CLOCK).toString());
+
+        //when
+        MockHttpServletResponse response = callEndpoint("/api/calculate-reward?validation=some", json);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    void shouldRecordRequestAndDeserializationMetrics() throws Exception {
+        //given
+        String json = """
+                  [
+                  {
+                    "cost": "120",
+                    "time": "%s"
+                  }
+                  ]
+                """.formatted(ZonedDateTime.now(CLOCK).toString());
+        long deserializedBefore = meterRegistry.get("reward.deserialization").timer().count();
+
+        //when
+        callCalculateRewardEndpoint(json);
+
+        //then
+        assertThat(meterRegistry.get("reward.requests")
+                                .tags("endpoint", "calculate-reward", "transactions", "1-10", "outcome", "ok")
+                                .timer().count()).isPositive();
+        assertThat(meterRegistry.get("reward.deserialization").timer().count()).isGreaterThan(deserializedBefore);
+    }
+
+    @Test
+    void shouldReturn180PointsForTwoBinaryRecordsOf120() throws Exception {
+        //given
+        long now = ZonedDateTime.now(CLOCK).toEpochSecond();
+        byte[] body = ByteBuffer.allocate(2 * BinaryTransactionReader.RECORD_SIZE)
+                                .order(ByteOrder.LITTLE_ENDIAN)
+                                .putLong(now).putLong(12_000)
+                                .putLong(now).putLong(12_000)
+                                .array();
+
+        //when
+        MockHttpServletResponse response = callBinaryEndpoint(BinaryTransactionReader.MEDIA_TYPE_VALUE, body);
+        RewardDTO responseObject = MAPPER.readValue(response.getContentAsString(), RewardDTO.class);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(responseObject.getTotalPoints()).isEqualTo(180);
+    }
+
+    @Test
+    void shouldReturn422WhenBinaryRecordsBelongToDifferentCustomers() throws Exception {
+        //given
+        long now = ZonedDateTime.now(CLOCK).toEpochSecond();
+        byte[] body = ByteBuffer.allocate(2 * BinaryTransactionReader.CUSTOMER_RECORD_SIZE)
+                                .order(ByteOrder.LITTLE_ENDIAN)
+                                .putLong(1).putLong(now).putLong(12_000)
+                                .putLong(2).putLong(now).putLong(12_000)
+                                .array();
+
+        //when
+        MockHttpServletResponse response = callBinaryEndpoint(
+                BinaryTransactionReader.MEDIA_TYPE_VALUE + ";customer-id=true", body);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(RewardValidators.MIXED_CUSTOMERS.getResponseCode().value());
+        assertThat(response.getContentAsString()).contains(RewardValidators.MIXED_CUSTOMERS.getMessage());
+    }
+
+    @Test
+    void shouldReturn422WhenFirstBinaryRecordHasNegativeCustomerId() throws Exception {
+        //given
+        long now = ZonedDateTime.now(CLOCK).toEpochSecond();
+        byte[] body = ByteBuffer.allocate(2 * BinaryTransactionReader.CUSTOMER_RECORD_SIZE)
+                                .order(ByteOrder.LITTLE_ENDIAN)
+                                .putLong(-1).putLong(now).putLong(12_000)
+                                .putLong(2).putLong(now).putLong(12_000)
+                                .array();
+
+        //when
+        MockHttpServletResponse response = callBinaryEndpoint(
+                BinaryTransactionReader.MEDIA_TYPE_VALUE + ";customer-id=true", body);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(RewardValidators.MIXED_CUSTOMERS.getResponseCode().value());
+    }
+
+    @Test
+    void shouldReturn422WhenBinaryRecordIsOlderThan3Months() throws Exception {
+        //given
+        byte[] body = ByteBuffer.allocate(BinaryTransactionReader.RECORD_SIZE)
+                                .order(ByteOrder.LITTLE_ENDIAN)
+                                .putLong(ZonedDateTime.now(CLOCK).minusMonths(4).toEpochSecond()).putLong(12_000)
+                                .array();
+
+        //when
+        MockHttpServletResponse response = callBinaryEndpoint(BinaryTransactionReader.MEDIA_TYPE_VALUE, body);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY.value());
+        assertThat(response.getContentAsString()).contains(RewardValidators.TOO_OLD_MESSAGE);
+    }
+
     private TransactionDTO t(BigDecimal cost, ZonedDateTime time) {
         return new TransactionDTO(cost, time);
     }
 
     private MockHttpServletResponse callCalculateRewardEndpoint(String json) throws Exception {
 
+        return callEndpoint("/api/calculate-reward", json);
+    }
+
+    private MockHttpServletResponse callBinaryEndpoint(String contentType, byte[] body) throws Exception {
+
         return mockMvc.perform(MockMvcRequestBuilders
                               .post("/api/calculate-reward")
+                              .contentType(contentType)
+                              .content(body))
+                      .andReturn().getResponse();
+    }
+
+    private MockHttpServletResponse callEndpoint(String url, String json) throws Exception {
+
+        return mockMvc.perform(MockMvcRequestBuilders
+                              .post(url)
                               //                              .with(SecurityMockMvcRequestPostProcessors.csrf())
                               .contentType(MediaType.APPLICATION_JSON)
                               .content(json))
                       .andReturn().getResponse();
     }
-}
 
+    @TestConfiguration
+    static class FixedClockConfiguration {
+        @Bean
+        @Primary
+        Clock fixedClock() {
+            return CLOCK;
+        }
+    }
+}
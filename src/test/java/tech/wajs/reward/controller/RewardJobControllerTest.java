@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import tech.wajs.reward.dto.RewardDTO;
+import tech.wajs.reward.dto.RewardJobDTO;
+import tech.wajs.reward.enums.JobStatus;
+
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RewardJobControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    private final ObjectMapper MAPPER = new JsonMapper();
+
+    @BeforeEach
+    void setUp() {
+        MAPPER.findAndRegisterModules();
+    }
+
+    @Test
+    void shouldSubmitPollAndFetchResult() throws Exception {
+        //given
+        String json = """
+                  [
+                  {
+                    "cost": "120",
+                    "time": "%1$s"
+                  },
+                  {
+                    "cost": "120",
+                    "time": "%1$s"
+                  }
+                  ]
+                """.formatted(ZonedDateTime.now().toString());
+
+        //when
+        MockHttpServletResponse submitted = mockMvc.perform(MockMvcRequestBuilders
+                                                           .post("/api/calculate-reward/jobs")
+                                                           .contentType(MediaType.APPLICATION_JSON)
+                                                           .content(json))
+                                                   .andReturn().getResponse();
+        RewardJobDTO job = MAPPER.readValue(submitted.getContentAsString(), RewardJobDTO.class);
+        RewardJobDTO finished = awaitFinished(job.getId());
+        MockHttpServletResponse result = get("/api/calculate-reward/jobs/" + job.getId() + "/result");
+
+        //then
+        assertThat(submitted.getStatus()).isEqualTo(HttpStatus.ACCEPTED.value());
+        assertThat(submitted.getHeader("Location")).isEqualTo("/api/calculate-reward/jobs/" + job.getId());
+        assertThat(finished.getStatus()).isEqualTo(JobStatus.DONE);
+        assertThat(finished.getReward().getTotalPoints()).isEqualTo(180);
+        assertThat(MAPPER.readValue(result.getContentAsString(), RewardDTO.class).getTotalPoints()).isEqualTo(180);
+    }
+
+    @Test
+    void shouldReturn404WhenJobIsUnknown() throws Exception {
+        //given
+        //when
+        MockHttpServletResponse response = get("/api/calculate-reward/jobs/unknown");
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_FOUND.value());
+    }
+
+    private RewardJobDTO awaitFinished(String jobId) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        RewardJobDTO job = poll(jobId);
+        while (job.getStatus() != JobStatus.DONE && job.getStatus() != JobStatus.FAILED
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            job = poll(jobId);
+        }
+        return job;
+    }
+
+    private RewardJobDTO poll(String jobId) throws Exception {
+        return MAPPER.readValue(get("/api/calculate-reward/jobs/" + jobId).getContentAsString(), RewardJobDTO.class);
+    }
+
+    private MockHttpServletResponse get(String url) throws Exception {
+
+        return mockMvc.perform(MockMvcRequestBuilders.get(url)).andReturn().getResponse();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.dedup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionDeduplicatorTest {
+    private static final long NOVEMBER = 2022 * 12 + 10;
+
+    @Test
+    void shouldRecognizeIdSeenInTheSameMonth() {
+        //given
+        TransactionDeduplicator deduplicator = new TransactionDeduplicator(1000, 0.01);
+
+        //when
+        boolean first = deduplicator.isDuplicate(1L, "order-1", NOVEMBER);
+        boolean second = deduplicator.isDuplicate(1L, "order-1", NOVEMBER);
+        boolean otherMonth = deduplicator.isDuplicate(1L, "order-1", NOVEMBER - 1);
+
+        //then
+        assertThat(first).isFalse();
+        assertThat(second).isTrue();
+        assertThat(otherMonth).isFalse();
+    }
+
+    @Test
+    void shouldKeepIdsOfDifferentCustomersApart() {
+        //given
+        TransactionDeduplicator deduplicator = new TransactionDeduplicator(1000, 0.01);
+        deduplicator.isDuplicate(1L, "order-1", NOVEMBER);
+
+        //when
+        boolean otherCustomer = deduplicator.isDuplicate(2L, "order-1", NOVEMBER);
+        boolean sameCustomer = deduplicator.isDuplicate(1L, "order-1", NOVEMBER);
+
+        //then
+        assertThat(otherCustomer).isFalse();
+        assertThat(sameCustomer).isTrue();
+    }
+
+    @Test
+    void shouldNotDropNewIdsBeyondExpectedVolume() {
+        //given
+        TransactionDeduplicator deduplicator = new TransactionDeduplicator(1000, 0.01);
+
+        //when
+        int duplicates = 0;
+        for (int i = 0; i < 100_000; i++) {
+            duplicates += deduplicator.isDuplicate(1L, "order-" + i, NOVEMBER) ? 1 : 0;
+        }
+
+        //then
+        assertThat(duplicates).isZero();
+        assertThat(deduplicator.isDuplicate(1L, "order-1", NOVEMBER)).isTrue();
+        assertThat(deduplicator.isDuplicate(1L, "order-99999", NOVEMBER)).isFalse();
+    }
+
+    @Test
+    void shouldKeepMemoryFlatPastExpectedVolume() {
+        //given
+        TransactionDeduplicator deduplicator = new TransactionDeduplicator(1000, 0.01);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        deduplicator.bindTo(registry);
+        deduplicator.isDuplicate(1L, "order-0", NOVEMBER);
+        long bytesAtStart = deduplicator.exactBytes();
+
+        //when
+        for (int i = 1; i < 100_000; i++) {
+            deduplicator.isDuplicate(1L, "order-" + i, NOVEMBER);
+        }
+
+        //then
+        assertThat(deduplicator.exactBytes()).isEqualTo(bytesAtStart);
+        assertThat(registry.get("reward.dedup.exact.size").gauge().value()).isLessThanOrEqualTo(1000 + 64);
+        assertThat(registry.get("reward.dedup.filter.bits").gauge().value())
+                .isEqualTo(new BloomFilter(1000, 0.01).bitSize());
+        assertThat(registry.get("reward.dedup.unconfirmed").functionCounter().count()).isPositive();
+    }
+
+    @Test
+    void shouldExposeFilterStateAsMetrics() {
+        //given
+        TransactionDeduplicator deduplicator = new TransactionDeduplicator(1000, 0.01);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        deduplicator.bindTo(registry);
+
+        //when
+        deduplicator.isDuplicate(1L, "order-1", NOVEMBER);
+        deduplicator.isDuplicate(1L, "order-1", NOVEMBER);
+        deduplicator.isDuplicate(1L, "order-2", NOVEMBER - 1);
+        deduplicator.removeMonthsBefore(NOVEMBER);
+
+        //then
+        assertThat(registry.get("reward.dedup.checked").functionCounter().count()).isEqualTo(3);
+        assertThat(registry.get("reward.dedup.duplicates").tag("match", "exact").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("reward.dedup.generations").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("reward.dedup.exact.size").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("reward.dedup.filter.fill").gauge().value()).isPositive();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.ingest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import tech.wajs.reward.exceptions.KnownException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryTransactionReaderTest {
+
+    @Test
+    void shouldDecodeLittleEndianRecordsAcrossBufferRefills() throws Exception {
+        //given
+        int records = 10_000;
+        ByteBuffer body = ByteBuffer.allocate(records * BinaryTransactionReader.RECORD_SIZE)
+                                    .order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < records; i++) {
+            body.putLong(1_667_852_953L + i).putLong(i * 100L);
+        }
+        List<long[]> decoded = new ArrayList<>();
+
+        //when
+        long count = BinaryTransactionReader.read(new ByteArrayInputStream(body.array()), false,
+                (customerId, epochSecond, cents) -> decoded.add(new long[]{customerId, epochSecond, cents}));
+
+        //then
+        assertThat(count).isEqualTo(records);
+        assertThat(decoded.get(0)).containsExactly(BinaryTransactionReader.NO_CUSTOMER, 1_667_852_953L, 0);
+        assertThat(decoded.get(records - 1)).containsExactly(BinaryTransactionReader.NO_CUSTOMER,
+                1_667_852_953L + records - 1, (records - 1) * 100L);
+    }
+
+    @Test
+    void shouldDecodeCustomerIdWhenPresent() throws Exception {
+        //given
+        byte[] body = ByteBuffer.allocate(BinaryTransactionReader.CUSTOMER_RECORD_SIZE)
+                                .order(ByteOrder.LITTLE_ENDIAN)
+                                .putLong(42).putLong(1_667_852_953L).putLong(12_000)
+                                .array();
+        List<long[]> decoded = new ArrayList<>();
+
+        //when
+        BinaryTransactionReader.read(new ByteArrayInputStream(body), true,
+                (customerId, epochSecond, cents) -> decoded.add(new long[]{customerId, epochSecond, cents}));
+
+        //then
+        assertThat(decoded).hasSize(1);
+        assertThat(decoded.get(0)).containsExactly(42, 1_667_852_953L, 12_000);
+    }
+
+    @Test
+    void shouldRejectTruncatedRecord() {
+        //given
+        byte[] body = new byte[BinaryTransactionReader.RECORD_SIZE + 3];
+
+        //when
+        KnownException exception = assertThrows(KnownException.class,
+                () -> BinaryTransactionReader.read(new ByteArrayInputStream(body), false, (c, e, cents) -> {
+                }));
+
+        //then
+        assertThat(exception.getResponseCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void shouldReadCustomerIdParameterFromContentType() {
+        //given
+        //when
+        //then
+        assertThat(BinaryTransactionReader.hasCustomerId(
+                MediaType.parseMediaType(BinaryTransactionReader.MEDIA_TYPE_VALUE + ";customer-id=true"))).isTrue();
+        assertThat(BinaryTransactionReader.hasCustomerId(
+                MediaType.parseMediaType(BinaryTransactionReader.MEDIA_TYPE_VALUE))).isFalse();
+    }
+}
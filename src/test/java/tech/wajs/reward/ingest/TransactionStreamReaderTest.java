@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.ingest;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import tech.wajs.reward.dto.TransactionDTO;
+import tech.wajs.reward.exceptions.KnownException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransactionStreamReaderTest {
+
+    TransactionStreamReader reader = new TransactionStreamReader(new JsonMapper().findAndRegisterModules());
+
+    @Test
+    void shouldPassEveryTransactionToConsumer() throws Exception {
+        //given
+        InputStream json = json("""
+                [
+                  {"cost": "120", "time": "1667852953"},
+                  {"cost": "20.50", "time": "2022-11-07T20:29:13Z"}
+                ]
+                """);
+        List<TransactionDTO> transactions = new ArrayList<>();
+
+        //when
+        long count = reader.read(json, transactions::add);
+
+        //then
+        assertThat(count).isEqualTo(2);
+        assertThat(transactions.get(0).getCost()).isEqualByComparingTo(new BigDecimal("120"));
+        assertThat(transactions.get(0).getTime().toEpochSecond()).isEqualTo(1667852953L);
+        assertThat(transactions.get(1).getCost()).isEqualByComparingTo(new BigDecimal("20.50"));
+    }
+
+    @Test
+    void shouldReadEmptyArray() throws Exception {
+        //given
+        List<TransactionDTO> transactions = new ArrayList<>();
+
+        //when
+        long count = reader.read(json("[]"), transactions::add);
+
+        //then
+        assertThat(count).isZero();
+        assertThat(transactions).isEmpty();
+    }
+
+    @Test
+    void shouldThrowExceptionWhenBodyIsNotArray() {
+        //when
+        KnownException exception = assertThrows(KnownException.class,
+                () -> reader.read(json("{\"cost\": \"120\"}"), t -> {
+                }));
+
+        //then
+        assertThat(exception.getResponseCode()).isSameAs(HttpStatus.BAD_REQUEST);
+    }
+
+    private InputStream json(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.jobs;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import tech.wajs.reward.dto.RewardDTO;
+import tech.wajs.reward.dto.RewardJobDTO;
+import tech.wajs.reward.enums.JobStatus;
+import tech.wajs.reward.exceptions.KnownException;
+import tech.wajs.reward.ingest.TransactionStreamReader;
+import tech.wajs.reward.metrics.RewardMetrics;
+import tech.wajs.reward.programs.RewardProgram;
+import tech.wajs.reward.service.RewardService;
+import tech.wajs.reward.validators.RewardValidators;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RewardJobServiceTest {
+
+    @TempDir
+    Path directory;
+
+    RewardService rewardService = new RewardService(new RewardValidators(),
+            new TransactionStreamReader(new JsonMapper().findAndRegisterModules()), RewardProgram.DEFAULT,
+            Clock.systemDefaultZone(), RewardMetrics.noop());
+    RewardJobService rewardJobService;
+
+    @AfterEach
+    void tearDown() {
+        rewardJobService.shutdown();
+    }
+
+    @Test
+    void shouldCalculateRewardInBackground() throws Exception {
+        //given
+        rewardJobService = service(Duration.ofHours(1));
+        String json = """
+                [{"cost": "120", "time": "%1$s"}, {"cost": "120", "time": "%1$s"}]
+                """.formatted(ZonedDateTime.now());
+
+        //when
+        RewardJobDTO submitted = rewardJobService.submit(body(json), RewardProgram.DEFAULT);
+        RewardJobDTO finished = awaitFinished(submitted.getId());
+
+        //then
+        assertThat(finished.getStatus()).isEqualTo(JobStatus.DONE);
+        assertThat(finished.getProcessedBytes()).isEqualTo(finished.getTotalBytes());
+        assertThat(rewardJobService.getResult(submitted.getId()).getTotalPoints()).isEqualTo(180);
+        try (var files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void shouldKeepValidationErrorOfFailedJob() throws Exception {
+        //given
+        rewardJobService = service(Duration.ofHours(1));
+        String json = """
+                [{"cost": "-1", "time": "%s"}]
+                """.formatted(ZonedDateTime.now());
+
+        //when
+        RewardJobDTO submitted = rewardJobService.submit(body(json), RewardProgram.DEFAULT);
+        RewardJobDTO finished = awaitFinished(submitted.getId());
+        KnownException exception = assertThrows(KnownException.class,
+                () -> rewardJobService.getResult(submitted.getId()));
+
+        //then
+        assertThat(finished.getStatus()).isEqualTo(JobStatus.FAILED);
+        assertThat(finished.getError()).isEqualTo(RewardValidators.NEGATIVE_COST.getMessage());
+        assertThat(exception.getResponseCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(exception.getErrorId().toString()).isEqualTo(finished.getErrorId());
+    }
+
+    @Test
+    void shouldForgetFinishedJobsAfterTtl() throws Exception {
+        //given
+        rewardJobService = service(Duration.ZERO);
+        String json = """
+                [{"cost": "120", "time": "%s"}]
+                """.formatted(ZonedDateTime.now());
+        RewardJobDTO submitted = rewardJobService.submit(body(json), RewardProgram.DEFAULT);
+        awaitFinished(submitted.getId());
+
+        //when
+        rewardJobService.removeExpired();
+        KnownException exception = assertThrows(KnownException.class,
+                () -> rewardJobService.getJob(submitted.getId()));
+
+        //then
+        assertThat(exception.getResponseCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldRefuseJobBeforeSpoolingWhenQueueIsFull() throws Exception {
+        //given
+        CountDownLatch release = new CountDownLatch(1);
+        RewardService blockingService = new RewardService(new RewardValidators(),
+                new TransactionStreamReader(new JsonMapper().findAndRegisterModules()), RewardProgram.DEFAULT,
+                Clock.systemDefaultZone(), RewardMetrics.noop()) {
+            @Override
+            public RewardDTO calculateReward(InputStream json, RewardProgram program) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.calculateReward(json, program);
+            }
+        };
+        rewardJobService = new RewardJobService(blockingService, Clock.systemDefaultZone(), 1, 1,
+                Duration.ofHours(1), directory.toString());
+        String json = """
+                [{"cost": "120", "time": "%s"}]
+                """.formatted(ZonedDateTime.now());
+        RewardJobDTO running = rewardJobService.submit(body(json), RewardProgram.DEFAULT);
+        RewardJobDTO waiting = rewardJobService.submit(body(json), RewardProgram.DEFAULT);
+        ByteArrayInputStream refusedBody = body(json);
+
+        //when
+        KnownException exception = assertThrows(KnownException.class,
+                () -> rewardJobService.submit(refusedBody, RewardProgram.DEFAULT));
+
+        //then
+        assertThat(exception.getResponseCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(refusedBody.available()).isEqualTo(json.length());
+        try (var files = Files.list(directory)) {
+            assertThat(files).hasSize(2);
+        }
+        release.countDown();
+        assertThat(awaitFinished(running.getId()).getStatus()).isEqualTo(JobStatus.DONE);
+        assertThat(awaitFinished(waiting.getId()).getStatus()).isEqualTo(JobStatus.DONE);
+    }
+
+    private RewardJobService service(Duration ttl) {
+        return new RewardJobService(rewardService, Clock.systemDefaultZone(), 1, 4, ttl, directory.toString());
+    }
+
+    private RewardJobDTO awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        RewardJobDTO job = rewardJobService.getJob(jobId);
+        while (job.getStatus() != JobStatus.DONE && job.getStatus() != JobStatus.FAILED
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            job = rewardJobService.getJob(jobId);
+        }
+        return job;
+    }
+
+    private ByteArrayInputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
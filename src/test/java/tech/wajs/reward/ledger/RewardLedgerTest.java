@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.ledger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import tech.wajs.reward.dto.MonthlyRewardDTO;
+import tech.wajs.reward.dto.RewardDTO;
+import tech.wajs.reward.dto.TransactionDTO;
+import tech.wajs.reward.exceptions.KnownException;
+import tech.wajs.reward.metrics.RewardMetrics;
+import tech.wajs.reward.programs.RewardProgram;
+import tech.wajs.reward.service.RewardService;
+import tech.wajs.reward.validators.RewardValidators;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RewardLedgerTest {
+
+    @TempDir
+    Path directory;
+
+    RewardValidators validators = new RewardValidators();
+    RewardService rewardService =
+            new RewardService(validators, null, RewardProgram.DEFAULT, Clock.systemDefaultZone(),
+                    RewardMetrics.noop());
+
+    @Test
+    void shouldAddNewTransactionsToExistingMonths() throws Exception {
+        //given
+        RewardLedger ledger = ledger();
+        ledger.addTransactions(1L, List.of(t(120, ZonedDateTime.now()), t(120, ZonedDateTime.now().minusMonths(1))));
+
+        //when
+        RewardDTO reward = ledger.addTransactions(1L, List.of(t(120, ZonedDateTime.now())));
+
+        //then
+        assertThat(reward.getMonthlyRewards().size()).isEqualTo(2);
+        assertThat(reward.getTotalPoints()).isEqualTo(3 * 90);
+        assertThat(ledger.getReward(1L).getTotalPoints()).isEqualTo(3 * 90);
+    }
+
+    @Test
+    void shouldKeepCustomersSeparate() throws Exception {
+        //given
+        RewardLedger ledger = ledger();
+
+        //when
+        ledger.addTransactions(1L, List.of(t(120, ZonedDateTime.now())));
+        ledger.addTransactions(2L, List.of(t(65, ZonedDateTime.now())));
+
+        //then
+        assertThat(ledger.getReward(1L).getTotalPoints()).isEqualTo(90);
+        assertThat(ledger.getReward(2L).getTotalPoints()).isEqualTo(15);
+    }
+
+    @Test
+    void shouldNotApplyAnyTransactionWhenOneIsInvalid() throws Exception {
+        //given
+        RewardLedger ledger = ledger();
+        ledger.addTransactions(1L, List.of(t(120, ZonedDateTime.now())));
+
+        //when
+        assertThrows(KnownException.class, () -> ledger.addTransactions(1L,
+                List.of(t(120, ZonedDateTime.now()), t(120, ZonedDateTime.now().plusMonths(1)))));
+
+        //then
+        assertThat(ledger.getReward(1L).getTotalPoints()).isEqualTo(90);
+    }
+
+    @Test
+    void shouldRestoreCustomersFromSnapshot() throws Exception {
+        //given
+        RewardLedger ledger = ledger();
+        ledger.addTransactions(1L, List.of(t(120, ZonedDateTime.now()), t(220, ZonedDateTime.now().minusMonths(2))));
+        ledger.close();
+
+        //when
+        RewardLedger restored = ledger();
+
+        //then
+        RewardDTO reward = restored.getReward(1L);
+        assertThat(reward.getMonthlyRewards()).extracting(MonthlyRewardDTO::getPoints)
+                                              .containsExactlyInAnyOrder(90, 290);
+        assertThat(reward.getTotalPoints()).isEqualTo(90 + 290);
+    }
+
+    @Test
+    void shouldRestoreCustomersFromSnapshotAndTransactionLog() throws Exception {
+        //given
+        RewardLedger ledger = ledger();
+        ledger.addTransactions(1L, List.of(t(120, ZonedDateTime.now())));
+        ledger.saveSnapshot();
+        ledger.addTransactions(1L, List.of(t(220, ZonedDateTime.now().minusMonths(1))));
+        ledger.addTransactions(2L, List.of(t(65, ZonedDateTime.now())));
+
+        //when
+        RewardLedger restored = ledger();
+
+        //then
+        assertThat(restored.getReward(1L).getTotalPoints()).isEqualTo(90 + 290);
+        assertThat(restored.getReward(2L).getTotalPoints()).isEqualTo(15);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenCustomerIsUnknown() throws Exception {
+        //given
+        RewardLedger ledger = ledger();
+
+        //when
+        KnownException exception = assertThrows(KnownException.class, () -> ledger.getReward(42L));
+
+        //then
+        assertThat(exception.getResponseCode()).isSameAs(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldRejectWholeRequestWhenMonthIsOutsideOfWindow() throws Exception {
+        //given
+        Clock clock = Clock.fixed(Instant.parse("2022-11-01T05:00:00Z"), ZoneOffset.UTC);
+        RewardService fixedClockService =
+                new RewardService(validators, null, RewardProgram.DEFAULT, clock, RewardMetrics.noop());
+        RewardLedger ledger = new RewardLedger(fixedClockService, validators, directory);
+        ledger.load();
+        // after the TOO_OLD cutoff as an instant, but in July under its own offset
+        ZonedDateTime julyLocal = ZonedDateTime.parse("2022-08-01T06:00:00Z")
+                                               .withZoneSameInstant(ZoneOffset.ofHours(-12));
+
+        //when
+        KnownException exception = assertThrows(KnownException.class, () -> ledger.addTransactions(1L,
+                List.of(t(120, ZonedDateTime.parse("2022-10-15T10:00:00Z")), t(120, julyLocal))));
+        ledger.close();
+        RewardLedger restored = new RewardLedger(fixedClockService, validators, directory);
+        restored.load();
+
+        //then
+        assertThat(exception.getResponseCode()).isSameAs(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThrows(KnownException.class, () -> restored.getReward(1L));
+    }
+
+    @Test
+    void shouldSkipLoggedTransactionsOutsideOfWindowOnReplay() throws Exception {
+        //given
+        TransactionLog transactionLog = new TransactionLog(directory);
+        transactionLog.open(0);
+        transactionLog.append(1L, ZonedDateTime.now().minusMonths(5).toEpochSecond(), 0, 12000);
+        transactionLog.append(2L, ZonedDateTime.now().toEpochSecond(), 0, 12000);
+        transactionLog.close();
+
+        //when
+        RewardLedger ledger = ledger();
+
+        //then
+        assertThat(ledger.getReward(2L).getTotalPoints()).isEqualTo(90);
+        assertThrows(KnownException.class, () -> ledger.getReward(1L));
+    }
+
+    @Test
+    void shouldRejectMonthOlderThanTheOneInItsSlot() {
+        //given
+        CustomerMonths customerMonths = new CustomerMonths();
+        customerMonths.add(100, 90, 1);
+
+        //when
+        KnownException exception = assertThrows(KnownException.class,
+                () -> customerMonths.add(100 - CustomerMonths.MONTHS, 90, 1));
+
+        //then
+        assertThat(exception.getResponseCode()).isSameAs(HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    private RewardLedger ledger() throws IOException {
+        RewardLedger ledger = new RewardLedger(rewardService, validators, directory);
+        ledger.load();
+        return ledger;
+    }
+
+    private TransactionDTO t(int cost, ZonedDateTime time) {
+        return new TransactionDTO(new BigDecimal(cost), time);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.ledger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionLogTest {
+
+    private static final long SMALL_CHUNK = 4L * TransactionLog.RECORD_SIZE;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReplayAppendedRecordsAcrossChunks() throws Exception {
+        //given
+        TransactionLog log = new TransactionLog(directory, SMALL_CHUNK);
+        log.open(0);
+        for (long i = 0; i < 10; i++) {
+            log.append(i, 1667852953L + i, 3600, 120_00 + i);
+        }
+        log.close();
+
+        //when
+        List<long[]> records = replay(new TransactionLog(directory, SMALL_CHUNK), 0);
+
+        //then
+        assertThat(records).hasSize(10);
+        assertThat(records.get(9)).containsExactly(9, 1667852962L, 3600, 120_09);
+    }
+
+    @Test
+    void shouldContinueAppendingAfterReopen() throws Exception {
+        //given
+        TransactionLog log = new TransactionLog(directory, SMALL_CHUNK);
+        log.open(0);
+        log.append(1, 1, 0, 1);
+        log.close();
+
+        //when
+        TransactionLog reopened = new TransactionLog(directory, SMALL_CHUNK);
+        reopened.open(0);
+        reopened.append(2, 2, 0, 2);
+        reopened.close();
+
+        //then
+        assertThat(replay(new TransactionLog(directory, SMALL_CHUNK), 0)).extracting(record -> record[0])
+                                                                          .containsExactly(1L, 2L);
+    }
+
+    @Test
+    void shouldStopReplayAtTornRecord() throws Exception {
+        //given
+        TransactionLog log = new TransactionLog(directory, SMALL_CHUNK);
+        log.open(0);
+        log.append(1, 1, 0, 1);
+        log.append(2, 2, 0, 2);
+        log.close();
+        try (FileChannel channel = FileChannel.open(onlyFile(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}), TransactionLog.RECORD_SIZE + 8);
+        }
+
+        //when
+        List<long[]> records = replay(new TransactionLog(directory, SMALL_CHUNK), 0);
+
+        //then
+        assertThat(records).extracting(record -> record[0]).containsExactly(1L);
+    }
+
+    @Test
+    void shouldReplayOnlyGenerationsAfterSnapshot() throws Exception {
+        //given
+        TransactionLog log = new TransactionLog(directory, SMALL_CHUNK);
+        log.open(0);
+        log.append(1, 1, 0, 1);
+        long generation = log.rotate();
+        log.append(2, 2, 0, 2);
+        log.close();
+
+        //when
+        List<long[]> records = new ArrayList<>();
+        long nextGeneration = new TransactionLog(directory, SMALL_CHUNK).replay(generation,
+                (customerId, epochSecond, offset, cents) -> records.add(new long[]{customerId}));
+        log.deleteBefore(generation);
+
+        //then
+        assertThat(records).extracting(record -> record[0]).containsExactly(2L);
+        assertThat(nextGeneration).isEqualTo(generation + 1);
+        assertThat(onlyFile().getFileName().toString()).contains(String.valueOf(generation));
+    }
+
+    private List<long[]> replay(TransactionLog log, long fromGeneration) throws IOException {
+        List<long[]> records = new ArrayList<>();
+        log.replay(fromGeneration, (customerId, epochSecond, offset, cents) ->
+                records.add(new long[]{customerId, epochSecond, offset, cents}));
+        return records;
+    }
+
+    private Path onlyFile() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.reduce((first, second) -> {
+                throw new IllegalStateException("More than one log file.");
+            }).orElseThrow();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.live;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DailyPointsIndexTest {
+    private static final long TODAY = LocalDate.of(2022, 11, 20).toEpochDay();
+
+    @Test
+    void shouldSumAnyRangeOfDays() {
+        //given
+        DailyPointsIndex index = new DailyPointsIndex(124);
+        long[] points = new long[124];
+        Random random = new Random(7);
+        for (int i = 0; i < 1000; i++) {
+            int day = random.nextInt(points.length);
+            long value = random.nextInt(100);
+            points[day] += value;
+            index.add(1, TODAY - day, value);
+        }
+
+        //when
+        //then
+        for (int i = 0; i < 1000; i++) {
+            int first = random.nextInt(points.length);
+            int second = random.nextInt(points.length);
+            long expected = 0;
+            for (int day = Math.min(first, second); day <= Math.max(first, second); day++) {
+                expected += points[day];
+            }
+            assertThat(index.sum(1, TODAY - Math.max(first, second), TODAY - Math.min(first, second)))
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void shouldKeepWindowWhenDaysMoveForward() {
+        //given
+        DailyPointsIndex index = new DailyPointsIndex(124);
+        index.add(1, TODAY - 200, 5);
+        index.add(1, TODAY - 100, 10);
+        index.add(1, TODAY - 1, 20);
+
+        //when
+        index.add(1, TODAY + 60, 40);
+
+        //then
+        assertThat(index.sum(1, TODAY - 100, TODAY - 100)).isZero();
+        assertThat(index.sum(1, TODAY - 1, TODAY + 60)).isEqualTo(60);
+        assertThat(index.sum(1, Long.MIN_VALUE / 2, Long.MAX_VALUE / 2)).isEqualTo(60);
+    }
+
+    @Test
+    void shouldDropDaysBeforeTheWindow() {
+        //given
+        DailyPointsIndex index = new DailyPointsIndex(124);
+        index.add(1, TODAY, 20);
+
+        //when
+        index.add(1, TODAY - 125, 10);
+
+        //then
+        assertThat(index.sum(1, TODAY - 200, TODAY)).isEqualTo(20);
+        assertThat(index.contains(1)).isTrue();
+        assertThat(index.contains(2)).isFalse();
+    }
+
+    @Test
+    void shouldRemoveCustomersIdleBeforeDay() {
+        //given
+        DailyPointsIndex index = new DailyPointsIndex(124);
+        index.add(1, TODAY - 130, 5);
+        index.add(2, TODAY - 130, 5);
+        index.add(2, TODAY - 2, 10);
+
+        //when
+        index.removeCustomersIdleBefore(TODAY - 124);
+
+        //then
+        assertThat(index.contains(1)).isFalse();
+        assertThat(index.contains(2)).isTrue();
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.sum(2, TODAY - 2, TODAY)).isEqualTo(10);
+    }
+}
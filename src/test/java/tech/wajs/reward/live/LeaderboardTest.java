@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.live;
+
+import org.junit.jupiter.api.Test;
+import tech.wajs.reward.dto.LeaderboardEntryDTO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class LeaderboardTest {
+    private static final long NOVEMBER = 2022 * 12 + 10;
+
+    @Test
+    void shouldKeepCustomersWithMostPoints() {
+        //given
+        Leaderboard leaderboard = new Leaderboard(2);
+
+        //when
+        leaderboard.offer(1, NOVEMBER, 90);
+        leaderboard.offer(2, NOVEMBER, 25);
+        leaderboard.offer(3, NOVEMBER, 50);
+        leaderboard.offer(2, NOVEMBER, 115);
+        leaderboard.offer(2, NOVEMBER, 30);
+
+        //then
+        assertThat(leaderboard.top(NOVEMBER, 10))
+                .extracting(LeaderboardEntryDTO::getRank, LeaderboardEntryDTO::getCustomerId,
+                        LeaderboardEntryDTO::getPoints)
+                .containsExactly(
+                        tuple(1, 2L, 115),
+                        tuple(2, 1L, 90));
+    }
+
+    @Test
+    void shouldStartNewBoardForNextMonth() {
+        //given
+        Leaderboard leaderboard = new Leaderboard(2);
+        leaderboard.offer(1, NOVEMBER - 1, 90);
+
+        //when
+        leaderboard.offer(2, NOVEMBER, 25);
+        leaderboard.offer(3, NOVEMBER - 1, 500);
+
+        //then
+        assertThat(leaderboard.top(NOVEMBER, 10)).extracting(LeaderboardEntryDTO::getCustomerId).containsExactly(2L);
+        assertThat(leaderboard.top(NOVEMBER - 1, 10)).isEmpty();
+    }
+
+    @Test
+    void shouldMatchFullRankingUnderConcurrentUpdates() throws Exception {
+        //given
+        Leaderboard leaderboard = new Leaderboard(100);
+        Map<Long, AtomicLong> totals = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> writers = new ArrayList<>();
+
+        //when
+        for (int thread = 0; thread < 8; thread++) {
+            writers.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 20_000; i++) {
+                    long customerId = random.nextInt(2_000);
+                    AtomicLong total = totals.computeIfAbsent(customerId, id -> new AtomicLong());
+                    synchronized (total) {
+                        leaderboard.offer(customerId, NOVEMBER, total.addAndGet(random.nextInt(100)));
+                    }
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        executor.shutdown();
+
+        //then
+        List<Long> expected = totals.entrySet().stream()
+                                    .sorted(Comparator.comparing((Map.Entry<Long, AtomicLong> e) -> e.getValue().get())
+                                                      .reversed().thenComparing(Map.Entry::getKey))
+                                    .limit(100)
+                                    .map(Map.Entry::getKey)
+                                    .toList();
+        assertThat(leaderboard.top(NOVEMBER, 100)).extracting(LeaderboardEntryDTO::getCustomerId)
+                                                  .containsExactlyElementsOf(expected);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.live;
+
+import org.junit.jupiter.api.Test;
+import tech.wajs.reward.dto.MonthlyRewardDTO;
+import tech.wajs.reward.dto.RewardDTO;
+import tech.wajs.reward.service.MonthlyPointsAccumulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class LiveAggregateStoreTest {
+    private static final long NOVEMBER = MonthlyPointsAccumulator.monthIndex(2022, 11);
+
+    @Test
+    void shouldSumConcurrentWritesPerMonth() throws Exception {
+        //given
+        LiveAggregateStore store = new LiveAggregateStore();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> writers = new ArrayList<>();
+
+        //when
+        for (int thread = 0; thread < 8; thread++) {
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    store.add(i % 2, NOVEMBER - i % 3, 2, 1);
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        executor.shutdown();
+        RewardDTO reward = store.get(0, NOVEMBER - 3, NOVEMBER).toReward();
+
+        //then
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(reward.getTotalPoints()).isEqualTo(8 * 5_000 * 2);
+        assertThat(reward.getMonthlyRewards()).hasSize(3);
+    }
+
+    @Test
+    void shouldReturnOnlyMonthsOfTheWindow() {
+        //given
+        LiveAggregateStore store = new LiveAggregateStore();
+        store.add(1, NOVEMBER, 90, 1);
+        store.add(1, NOVEMBER - 5, 90, 1);
+
+        //when
+        RewardDTO reward = store.get(1, NOVEMBER - 3, NOVEMBER).toReward();
+
+        //then
+        assertThat(reward.getMonthlyRewards()).extracting(MonthlyRewardDTO::getYear, MonthlyRewardDTO::getMonth)
+                                              .containsExactly(tuple(2022, 11));
+        assertThat(store.get(2, NOVEMBER - 3, NOVEMBER)).isNull();
+    }
+
+    @Test
+    void shouldRemoveOldMonths() {
+        //given
+        LiveAggregateStore store = new LiveAggregateStore();
+        store.add(1, NOVEMBER, 90, 1);
+        store.add(1, NOVEMBER - 5, 90, 1);
+
+        //when
+        store.removeMonthsBefore(NOVEMBER - 3);
+
+        //then
+        assertThat(store.get(1, Long.MIN_VALUE, Long.MAX_VALUE).toReward().getTotalPoints()).isEqualTo(90);
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.live;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import tech.wajs.reward.dedup.TransactionDeduplicator;
+import tech.wajs.reward.dto.LeaderboardEntryDTO;
+import tech.wajs.reward.dto.PeriodRewardDTO;
+import tech.wajs.reward.dto.RewardDTO;
+import tech.wajs.reward.dto.TransactionDTO;
+import tech.wajs.reward.enums.RollupPeriod;
+import tech.wajs.reward.exceptions.KnownException;
+import tech.wajs.reward.metrics.RewardMetrics;
+import tech.wajs.reward.programs.RewardProgram;
+import tech.wajs.reward.service.MonthlyPointsAccumulator;
+import tech.wajs.reward.service.RewardService;
+import tech.wajs.reward.validators.RewardValidators;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LivePurchaseServiceTest {
+
+    RewardValidators validators = new RewardValidators();
+    RewardService rewardService =
+            new RewardService(validators, null, RewardProgram.DEFAULT, Clock.systemDefaultZone(),
+                    RewardMetrics.noop());
+
+    @Test
+    void shouldAddDrainedPurchasesToReward() {
+        //given
+        LivePurchaseService service = service(100, 2);
+        service.addPurchase(1L, t(120, ZonedDateTime.now()));
+        service.addPurchase(1L, t(120, ZonedDateTime.now()));
+        service.addPurchase(1L, t(75, ZonedDateTime.now().minusMonths(1)));
+        service.addPurchase(2L, t(120, ZonedDateTime.now()));
+
+        //when
+        service.drain();
+        RewardDTO reward = service.getReward(1L);
+
+        //then
+        assertThat(reward.getMonthlyRewards()).hasSize(2);
+        assertThat(reward.getTotalPoints()).isEqualTo(2 * 90 + 25);
+        assertThat(service.getReward(2L).getTotalPoints()).isEqualTo(90);
+    }
+
+    @Test
+    void shouldNotSeeQueuedPurchasesBeforeDrain() {
+        //given
+        LivePurchaseService service = service(100, 10);
+        service.addPurchase(1L, t(120, ZonedDateTime.now()));
+
+        //when
+        KnownException exception = assertThrows(KnownException.class, () -> service.getReward(1L));
+
+        //then
+        assertThat(exception.getResponseCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldRejectPurchaseWhenQueueIsFull() {
+        //given
+        LivePurchaseService service = service(1, 10);
+        service.addPurchase(1L, t(120, ZonedDateTime.now()));
+
+        //when
+        KnownException exception = assertThrows(KnownException.class,
+                () -> service.addPurchase(1L, t(120, ZonedDateTime.now())));
+        service.drain();
+        service.addPurchase(1L, t(120, ZonedDateTime.now()));
+
+        //then
+        assertThat(exception.getResponseCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    void shouldCountRedeliveredPurchaseOnce() {
+        //given
+        LivePurchaseService service = service(100, 10);
+        ZonedDateTime time = ZonedDateTime.now();
+
+        //when
+        service.addPurchase(1L, new TransactionDTO(BigDecimal.valueOf(120), time, "order-1"));
+        service.addPurchase(1L, new TransactionDTO(BigDecimal.valueOf(120), time, "order-1"));
+        service.addPurchase(1L, new TransactionDTO(BigDecimal.valueOf(120), time, "order-2"));
+        service.addPurchase(1L, t(120, time));
+        service.addPurchase(1L, t(120, time));
+        service.drain();
+
+        //then
+        assertThat(service.getReward(1L).getTotalPoints()).isEqualTo(4 * 90);
+    }
+
+    @Test
+    void shouldRankCustomersOfCurrentMonth() {
+        //given
+        LivePurchaseService service = service(100, 10);
+        service.addPurchase(1L, t(120, ZonedDateTime.now()));
+        service.addPurchase(2L, t(120, ZonedDateTime.now()));
+        service.addPurchase(2L, t(75, ZonedDateTime.now()));
+        service.addPurchase(3L, t(1000, ZonedDateTime.now().minusMonths(1)));
+        service.drain();
+        service.addPurchase(3L, t(75, ZonedDateTime.now()));
+        service.addPurchase(1L, t(75, ZonedDateTime.now()));
+        service.addPurchase(1L, t(75, ZonedDateTime.now()));
+        service.drain();
+
+        //when
+        List<LeaderboardEntryDTO> leaderboard = service.getLeaderboard(10);
+
+        //then
+        assertThat(leaderboard).extracting(LeaderboardEntryDTO::getRank, LeaderboardEntryDTO::getCustomerId,
+                LeaderboardEntryDTO::getPoints).containsExactly(
+                tuple(1, 1L, 140),
+                tuple(2, 2L, 115));
+        assertThat(service.getLeaderboard(1)).hasSize(1);
+        assertThrows(KnownException.class, () -> service.getLeaderboard(0));
+    }
+
+    @Test
+    void shouldRejectInvalidPurchase() {
+        //given
+        LivePurchaseService service = service(100, 10);
+
+        //when
+        //then
+        assertThrows(KnownException.class, () -> service.addPurchase(1L, t(-1, ZonedDateTime.now())));
+        assertThrows(KnownException.class, () -> service.addPurchase(1L, t(120, ZonedDateTime.now().plusMonths(1))));
+        assertThrows(KnownException.class, () -> service.addPurchase(1L, t(120, ZonedDateTime.now().minusYears(1))));
+        assertThrows(KnownException.class, () -> service.addPurchase(1L,
+                new TransactionDTO(BigDecimal.valueOf(120), ZonedDateTime.now(), "x".repeat(129))));
+    }
+
+    @Test
+    void shouldRollUpPointsOfDateRange() {
+        //given
+        LivePurchaseService service = fixedClockService();
+        service.addPurchase(1L, t(120, ZonedDateTime.parse("2022-11-20T10:00:00Z")));
+        service.addPurchase(1L, t(120, ZonedDateTime.parse("2022-11-02T10:00:00Z")));
+        service.addPurchase(1L, t(75, ZonedDateTime.parse("2022-10-31T23:00:00-01:00")));
+        service.addPurchase(1L, t(120, ZonedDateTime.parse("2022-09-15T10:00:00Z")));
+        service.drain();
+
+        //when
+        List<PeriodRewardDTO> months = service.getPoints(1L, LocalDate.of(2022, 9, 20), null, null, RollupPeriod.MONTH);
+        List<PeriodRewardDTO> quarters = service.getPoints(1L, null, null, null, RollupPeriod.QUARTER);
+        List<PeriodRewardDTO> lastDays = service.getPoints(1L, null, null, "P19D", RollupPeriod.TOTAL);
+
+        //then
+        assertThat(months).extracting(PeriodRewardDTO::getFrom, PeriodRewardDTO::getTo, PeriodRewardDTO::getPoints)
+                          .containsExactly(
+                                  tuple(LocalDate.of(2022, 9, 20), LocalDate.of(2022, 9, 30), 0),
+                                  tuple(LocalDate.of(2022, 10, 1), LocalDate.of(2022, 10, 31), 25),
+                                  tuple(LocalDate.of(2022, 11, 1), LocalDate.of(2022, 11, 20), 180));
+        assertThat(quarters).extracting(PeriodRewardDTO::getFrom, PeriodRewardDTO::getPoints)
+                            .containsExactly(
+                                    tuple(LocalDate.of(2022, 8, 20), 90),
+                                    tuple(LocalDate.of(2022, 10, 1), 205));
+        assertThat(lastDays).extracting(PeriodRewardDTO::getFrom, PeriodRewardDTO::getPoints)
+                            .containsExactly(tuple(LocalDate.of(2022, 11, 2), 180));
+    }
+
+    @Test
+    void shouldRejectRangeOutsideOfWindow() {
+        //given
+        LivePurchaseService service = fixedClockService();
+        service.addPurchase(1L, t(120, ZonedDateTime.parse("2022-11-20T10:00:00Z")));
+        service.drain();
+
+        //when
+        KnownException tooEarly = assertThrows(KnownException.class,
+                () -> service.getPoints(1L, LocalDate.of(2022, 8, 1), null, null, RollupPeriod.MONTH));
+        KnownException reversed = assertThrows(KnownException.class,
+                () -> service.getPoints(1L, LocalDate.of(2022, 11, 2), LocalDate.of(2022, 11, 1), null,
+                        RollupPeriod.DAY));
+        KnownException unknown = assertThrows(KnownException.class,
+                () -> service.getPoints(2L, null, null, null, RollupPeriod.MONTH));
+
+        //then
+        assertThat(tooEarly.getResponseCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(reversed.getResponseCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(unknown.getResponseCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldEndRangeTodayWhenToIsInFuture() {
+        //given
+        LivePurchaseService service = fixedClockService();
+        service.addPurchase(1L, t(120, ZonedDateTime.parse("2022-11-20T10:00:00Z")));
+        service.drain();
+
+        //when
+        List<PeriodRewardDTO> days = service.getPoints(1L, LocalDate.of(2022, 11, 19), LocalDate.of(9999, 12, 31),
+                null, RollupPeriod.DAY);
+
+        //then
+        assertThat(days).extracting(PeriodRewardDTO::getFrom, PeriodRewardDTO::getPoints)
+                        .containsExactly(
+                                tuple(LocalDate.of(2022, 11, 19), 0),
+                                tuple(LocalDate.of(2022, 11, 20), 90));
+    }
+
+    @Test
+    void shouldRejectFromTogetherWithLast() {
+        //given
+        LivePurchaseService service = fixedClockService();
+        service.addPurchase(1L, t(120, ZonedDateTime.parse("2022-11-20T10:00:00Z")));
+        service.drain();
+
+        //when
+        KnownException exception = assertThrows(KnownException.class,
+                () -> service.getPoints(1L, LocalDate.of(2022, 11, 1), null, "P7D", RollupPeriod.DAY));
+
+        //then
+        assertThat(exception.getResponseCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void shouldAnswer404ForPointsWhenDailyIndexIsDisabled() {
+        //given
+        LivePurchaseService service = service(100, 10);
+        service.addPurchase(1L, t(120, ZonedDateTime.now()));
+        service.drain();
+
+        //when
+        KnownException exception = assertThrows(KnownException.class,
+                () -> service.getPoints(1L, null, null, null, RollupPeriod.MONTH));
+
+        //then
+        assertThat(exception.getResponseCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(service.getReward(1L).getTotalPoints()).isEqualTo(90);
+    }
+
+    @Test
+    void shouldSeedLeaderboardFromStoreOnStartup() {
+        //given
+        long november = MonthlyPointsAccumulator.monthIndex(2022, 11);
+        LiveAggregateStore store = new LiveAggregateStore();
+        store.add(1L, november, 90, 1);
+        store.add(2L, november, 250, 2);
+        store.add(3L, november - 1, 500, 1);
+
+        //when
+        LivePurchaseService service = fixedClockService(store);
+
+        //then
+        assertThat(service.getLeaderboard(10)).extracting(LeaderboardEntryDTO::getCustomerId,
+                LeaderboardEntryDTO::getPoints).containsExactly(tuple(2L, 250), tuple(1L, 90));
+    }
+
+    @Test
+    void shouldRejectPurchaseOfNewCustomerWhenStoreIsFull() throws Exception {
+        //given
+        OffHeapAggregateStore store = new OffHeapAggregateStore(1, 4, null);
+        LivePurchaseService service = new LivePurchaseService(rewardService, validators, store,
+                new TransactionDeduplicator(100, 0.01), 100, 10, 2, false);
+        service.addPurchase(1L, t(120, ZonedDateTime.now()));
+
+        //when
+        KnownException exception = assertThrows(KnownException.class,
+                () -> service.addPurchase(2L, t(120, ZonedDateTime.now())));
+        service.addPurchase(1L, t(120, ZonedDateTime.now()));
+        service.drain();
+
+        //then
+        assertThat(exception.getResponseCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(service.getReward(1L).getTotalPoints()).isEqualTo(2 * 90);
+        assertThrows(KnownException.class, () -> service.getReward(2L));
+    }
+
+    private LivePurchaseService fixedClockService() {
+        return fixedClockService(new LiveAggregateStore());
+    }
+
+    private LivePurchaseService fixedClockService(AggregateStore store) {
+        Clock clock = Clock.fixed(Instant.parse("2022-11-20T12:00:00Z"), ZoneOffset.UTC);
+        RewardService fixedClockRewardService =
+                new RewardService(validators, null, RewardProgram.DEFAULT, clock, RewardMetrics.noop());
+        return new LivePurchaseService(fixedClockRewardService, validators, store,
+                new TransactionDeduplicator(100, 0.01), 100, 10, 10, true);
+    }
+
+    private LivePurchaseService service(int queueCapacity, int batchSize) {
+        return new LivePurchaseService(rewardService, validators, new LiveAggregateStore(),
+                new TransactionDeduplicator(100, 0.01), queueCapacity, batchSize, 2, false);
+    }
+
+    private static TransactionDTO t(long cost, ZonedDateTime time) {
+        return new TransactionDTO(BigDecimal.valueOf(cost), time);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.live;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.wajs.reward.dto.MonthlyRewardDTO;
+import tech.wajs.reward.dto.RewardDTO;
+import tech.wajs.reward.service.MonthlyPointsAccumulator;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OffHeapAggregateStoreTest {
+    private static final long NOVEMBER = MonthlyPointsAccumulator.monthIndex(2022, 11);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldSumPointsPerCustomerAndMonth() throws Exception {
+        //given
+        OffHeapAggregateStore store = new OffHeapAggregateStore(100, 4, null);
+
+        //when
+        store.add(1, NOVEMBER, 90, 1);
+        store.add(1, NOVEMBER, 90, 1);
+        store.add(1, NOVEMBER - 1, 25, 1);
+        store.add(2, NOVEMBER, 10, 1);
+        RewardDTO reward = store.get(1, NOVEMBER - 3, NOVEMBER).toReward();
+
+        //then
+        assertThat(reward.getMonthlyRewards()).extracting(MonthlyRewardDTO::getYear, MonthlyRewardDTO::getMonth,
+                MonthlyRewardDTO::getPoints).containsExactlyInAnyOrder(
+                tuple(2022, 11, 180),
+                tuple(2022, 10, 25));
+        assertThat(store.get(2, NOVEMBER - 3, NOVEMBER).toReward().getTotalPoints()).isEqualTo(10);
+        assertThat(store.get(3, NOVEMBER - 3, NOVEMBER)).isNull();
+        assertThat(store.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReuseCellOfMonthThatLeftTheRing() throws Exception {
+        //given
+        OffHeapAggregateStore store = new OffHeapAggregateStore(100, 4, null);
+        store.add(1, NOVEMBER - 4, 90, 1);
+
+        //when
+        store.add(1, NOVEMBER, 25, 1);
+        store.add(1, NOVEMBER - 4, 90, 1);
+
+        //then
+        assertThat(store.get(1, Long.MIN_VALUE, Long.MAX_VALUE).toReward().getTotalPoints()).isEqualTo(25);
+    }
+
+    @Test
+    void shouldFillEveryCustomerUpToCapacity() throws Exception {
+        //given
+        OffHeapAggregateStore store = new OffHeapAggregateStore(1000, 4, null);
+
+        //when
+        for (long customerId = 0; customerId < 1000; customerId++) {
+            store.add(customerId * 1_000_003, NOVEMBER, customerId, 1);
+        }
+
+        //then
+        for (long customerId = 0; customerId < 1000; customerId++) {
+            assertThat(store.get(customerId * 1_000_003, NOVEMBER, NOVEMBER).toReward().getTotalPoints())
+                    .isEqualTo((int) customerId);
+        }
+        assertThrows(IllegalStateException.class, () -> store.add(-1, NOVEMBER, 1, 1));
+    }
+
+    @Test
+    void shouldReserveCustomersUpToCapacity() throws Exception {
+        //given
+        OffHeapAggregateStore store = new OffHeapAggregateStore(1, 4, null);
+
+        //when
+        boolean first = store.reserve(1);
+        boolean again = store.reserve(1);
+        boolean second = store.reserve(2);
+
+        //then
+        assertThat(first).isTrue();
+        assertThat(again).isTrue();
+        assertThat(second).isFalse();
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.get(1, NOVEMBER, NOVEMBER)).isNull();
+        assertThat(store.add(1, NOVEMBER, 90, 1)).isEqualTo(90);
+    }
+
+    @Test
+    void shouldSumConcurrentWrites() throws Exception {
+        //given
+        OffHeapAggregateStore store = new OffHeapAggregateStore(1000, 4, null);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> writers = new ArrayList<>();
+
+        //when
+        for (int thread = 0; thread < 8; thread++) {
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    store.add(i % 100, NOVEMBER, 2, 1);
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        executor.shutdown();
+
+        //then
+        assertThat(store.size()).isEqualTo(100);
+        assertThat(store.get(0, NOVEMBER, NOVEMBER).toReward().getTotalPoints()).isEqualTo(8 * 100 * 2);
+    }
+
+    @Test
+    void shouldKeepCustomersInMappedFileAcrossRestarts() throws Exception {
+        //given
+        Path file = directory.resolve("customers.store");
+        try (OffHeapAggregateStore store = new OffHeapAggregateStore(100, 4, file)) {
+            store.add(1, NOVEMBER, 90, 1);
+            store.add(2, NOVEMBER, 25, 1);
+        }
+
+        //when
+        OffHeapAggregateStore reopened = new OffHeapAggregateStore(100, 4, file);
+
+        //then
+        assertThat(reopened.size()).isEqualTo(2);
+        assertThat(reopened.get(1, NOVEMBER, NOVEMBER).toReward().getTotalPoints()).isEqualTo(90);
+        reopened.close();
+        assertThrows(IllegalStateException.class, () -> new OffHeapAggregateStore(100, 6, file));
+    }
+
+    @Test
+    void shouldPassPointsOfOneMonthOfEveryCustomer() throws Exception {
+        //given
+        OffHeapAggregateStore store = new OffHeapAggregateStore(100, 4, null);
+        store.add(1, NOVEMBER, 90, 1);
+        store.add(1, NOVEMBER - 1, 25, 1);
+        store.add(2, NOVEMBER, 10, 1);
+        store.add(3, NOVEMBER - 4, 50, 1);
+        Map<Long, Long> points = new HashMap<>();
+
+        //when
+        store.forEachMonth(NOVEMBER, points::put);
+
+        //then
+        assertThat(points).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 90L, 2L, 10L));
+    }
+}
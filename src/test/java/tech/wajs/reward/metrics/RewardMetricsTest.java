@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RewardMetricsTest {
+
+    MeterRegistry registry = new SimpleMeterRegistry();
+    RewardMetrics metrics = new RewardMetrics(registry);
+
+    @Test
+    void shouldRecordCalculationsInTransactionCountBuckets() {
+        //given
+        //when
+        metrics.recordCalculation(1, 1_000);
+        metrics.recordCalculation(10, 1_000);
+        metrics.recordCalculation(11, 1_000);
+        metrics.recordCalculation(50_000, 1_000);
+
+        //then
+        assertThat(registry.get("reward.calculations").tag("transactions", "1-10").timer().count()).isEqualTo(2);
+        assertThat(registry.get("reward.calculations").tag("transactions", "11-100").timer().count()).isEqualTo(1);
+        assertThat(registry.get("reward.calculations").tag("transactions", "10001+").timer().count()).isEqualTo(1);
+        assertThat(registry.get("reward.transactions").counter().count()).isEqualTo(50_022);
+    }
+
+    @Test
+    void shouldCountRejectionsPerReason() {
+        //given
+        //when
+        metrics.recordRejection("Cost can not be negative.");
+        metrics.recordRejection("Cost can not be negative.");
+        metrics.recordRejection("Cost or Date is missing.");
+
+        //then
+        assertThat(registry.get("reward.rejections").tag("reason", "Cost can not be negative.").counter().count())
+                .isEqualTo(2);
+        assertThat(registry.get("reward.rejections").tag("reason", "Cost or Date is missing.").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldTagRequestsWithEndpointSizeAndOutcome() {
+        //given
+        //when
+        metrics.recordRequest("calculate-reward", 0, "rejected", 1_000);
+        metrics.recordRequest("calculate-reward", 120, "ok", 1_000);
+
+        //then
+        assertThat(registry.get("reward.requests").tags("transactions", "0", "outcome", "rejected").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get("reward.requests").tags("transactions", "101-1000", "outcome", "ok").timer().count())
+                .isEqualTo(1);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.programs;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import tech.wajs.reward.exceptions.KnownException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RewardProgramRegistryTest {
+
+    private static final String PROGRAMS = """
+            [
+              {"id": "merchant-a", "maxAgeInMonths": 6, "tiers": [{"threshold": 0, "pointsPerDollar": 1}]},
+              {"id": "merchant-b", "tiers": [{"threshold": 10, "pointsPerDollar": 5}]}
+            ]
+            """;
+
+    @TempDir
+    Path directory;
+
+    RewardProgramRegistry registry;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (registry != null) {
+            registry.stop();
+        }
+    }
+
+    @Test
+    void shouldReturnDefaultProgramWhenIdIsMissing() throws Exception {
+        //given
+        registry = registry(null);
+
+        //when
+        //then
+        assertThat(registry.get(null)).isSameAs(RewardProgram.DEFAULT);
+        assertThat(registry.get(RewardProgram.DEFAULT_ID)).isSameAs(RewardProgram.DEFAULT);
+    }
+
+    @Test
+    void shouldLoadProgramsFromFile() throws Exception {
+        //given
+        registry = registry(write(PROGRAMS));
+
+        //when
+        RewardProgram merchantA = registry.get("merchant-a");
+        RewardProgram merchantB = registry.get("merchant-b");
+
+        //then
+        assertThat(merchantA.getMaxAgeInMonths()).isEqualTo(6);
+        assertThat(merchantA.getTierTable().points(120_00)).isEqualTo(120);
+        assertThat(merchantB.getMaxAgeInMonths()).isEqualTo(3);
+        assertThat(merchantB.getTierTable().points(20_00)).isEqualTo(50);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenProgramIsUnknown() throws Exception {
+        //given
+        registry = registry(null);
+
+        //when
+        KnownException exception = assertThrows(KnownException.class, () -> registry.get("unknown"));
+
+        //then
+        assertThat(exception.getResponseCode()).isSameAs(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldKeepPreviousProgramsWhenReloadFails() throws Exception {
+        //given
+        Path file = write(PROGRAMS);
+        registry = registry(file);
+        RewardProgram before = registry.get("merchant-a");
+        Files.writeString(file, "[{\"id\": \"merchant-a\", \"tiers\": [{\"threshold\": 1, \"pointsPerDollar\": -1}]}]");
+
+        //when
+        assertThrows(IllegalArgumentException.class, () -> registry.reload());
+
+        //then
+        assertThat(registry.get("merchant-a")).isSameAs(before);
+    }
+
+    @Test
+    void shouldReloadProgramsWhenFileChanges() throws Exception {
+        //given
+        Path file = write(PROGRAMS);
+        registry = registry(file);
+
+        //when
+        Files.writeString(file, "[{\"id\": \"merchant-c\", \"tiers\": []}]");
+
+        //then
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!isLoaded("merchant-c") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(registry.get("merchant-c").getTierTable().size()).isZero();
+        assertThrows(KnownException.class, () -> registry.get("merchant-a"));
+    }
+
+    private boolean isLoaded(String programId) {
+        try {
+            registry.get(programId);
+            return true;
+        } catch (KnownException e) {
+            return false;
+        }
+    }
+
+    private RewardProgramRegistry registry(Path file) throws Exception {
+        RewardProgramRegistry registry = new RewardProgramRegistry(RewardProgram.DEFAULT,
+                new JsonMapper(), file == null ? "" : file.toString());
+        registry.start();
+        return registry;
+    }
+
+    private Path write(String json) throws Exception {
+        return Files.writeString(directory.resolve("programs.json"), json);
+    }
+}
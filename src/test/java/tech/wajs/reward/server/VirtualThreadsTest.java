@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadsTest {
+
+    @Test
+    void shouldProvideExecutorOnlyWhenJdkHasVirtualThreads() throws Exception {
+        //given
+        boolean supported = Runtime.version().feature() >= 21;
+
+        //when
+        Optional<ExecutorService> executor = VirtualThreads.newExecutor();
+
+        //then
+        if (supported) {
+            assertThat(executor).isPresent();
+        } else if (Runtime.version().feature() < 19) {
+            assertThat(executor).isEmpty();
+        }
+        if (executor.isPresent()) {
+            assertThat(executor.get().submit(() -> Thread.currentThread().toString()).get(5, TimeUnit.SECONDS))
+                    .contains("Virtual");
+            executor.get().shutdown();
+        }
+    }
+}
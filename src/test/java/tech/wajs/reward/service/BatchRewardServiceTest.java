@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.service;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import tech.wajs.reward.dto.CustomerRewardDTO;
+import tech.wajs.reward.dto.CustomerTransactionsDTO;
+import tech.wajs.reward.dto.TransactionDTO;
+import tech.wajs.reward.exceptions.KnownException;
+import tech.wajs.reward.ingest.TransactionStreamReader;
+import tech.wajs.reward.metrics.RewardMetrics;
+import tech.wajs.reward.programs.RewardProgram;
+import tech.wajs.reward.validators.RewardValidators;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BatchRewardServiceTest {
+
+    RewardValidators validators = new RewardValidators();
+    TransactionStreamReader reader = new TransactionStreamReader(new JsonMapper().findAndRegisterModules());
+    BatchRewardService batchRewardService =
+            new BatchRewardService(new RewardService(validators, reader, RewardProgram.DEFAULT,
+                    Clock.systemDefaultZone(), RewardMetrics.noop()), validators, reader, 4, 8);
+
+    @AfterEach
+    void tearDown() {
+        batchRewardService.shutdown();
+    }
+
+    @Test
+    void shouldCalculateRewardForEveryCustomerInOrder() {
+        //given
+        List<CustomerTransactionsDTO> customers = LongStream.range(0, 1000)
+                .mapToObj(id -> new CustomerTransactionsDTO(id, List.of(t(new BigDecimal(120), ZonedDateTime.now()))))
+                .toList();
+
+        //when
+        List<CustomerRewardDTO> rewards = batchRewardService.calculateRewards(customers);
+
+        //then
+        assertThat(rewards).hasSize(1000);
+        assertThat(rewards).extracting(CustomerRewardDTO::getCustomerId)
+                           .containsExactlyElementsOf(LongStream.range(0, 1000).boxed().toList());
+        assertThat(rewards).allSatisfy(reward -> assertThat(reward.getReward().getTotalPoints()).isEqualTo(90));
+    }
+
+    @Test
+    void shouldNotFailWholeBatchWhenOneCustomerIsInvalid() {
+        //given
+        List<CustomerTransactionsDTO> customers = List.of(
+                new CustomerTransactionsDTO(1L, List.of(t(new BigDecimal(120), ZonedDateTime.now()))),
+                new CustomerTransactionsDTO(2L, List.of(t(new BigDecimal(-120), ZonedDateTime.now()))),
+                new CustomerTransactionsDTO(null, List.of(t(new BigDecimal(120), ZonedDateTime.now()))));
+
+        //when
+        List<CustomerRewardDTO> rewards = batchRewardService.calculateRewards(customers);
+
+        //then
+        assertThat(rewards.get(0).getReward().getTotalPoints()).isEqualTo(90);
+        assertThat(rewards.get(0).getError()).isNull();
+        assertThat(rewards.get(1).getReward()).isNull();
+        assertThat(rewards.get(1).getError()).isEqualTo(RewardValidators.NEGATIVE_COST.getMessage());
+        assertThat(rewards.get(1).getErrorId()).isNotNull();
+        assertThat(rewards.get(2).getError()).isEqualTo(RewardValidators.CUSTOMER_ID_MISSING.getMessage());
+    }
+
+    @Test
+    void shouldPassEveryStreamedCustomerToSink() throws Exception {
+        //given
+        StringBuilder json = new StringBuilder("[");
+        for (int id = 0; id < 100; id++) {
+            json.append(id == 0 ? "" : ",")
+                .append("{\"customerId\": ").append(id)
+                .append(", \"transactions\": [{\"cost\": \"120\", \"time\": \"")
+                .append(ZonedDateTime.now()).append("\"}]}");
+        }
+        json.append("]");
+        List<CustomerRewardDTO> rewards = new ArrayList<>();
+
+        //when
+        long customers = batchRewardService.calculateRewards(
+                new ByteArrayInputStream(json.toString().getBytes(StandardCharsets.UTF_8)), rewards::add);
+
+        //then
+        assertThat(customers).isEqualTo(100);
+        assertThat(rewards).extracting(CustomerRewardDTO::getCustomerId)
+                           .containsExactlyInAnyOrderElementsOf(LongStream.range(0, 100).boxed().toList());
+        assertThat(rewards).allSatisfy(reward -> assertThat(reward.getReward().getTotalPoints()).isEqualTo(90));
+    }
+
+    @Test
+    void shouldThrowExceptionWhenBatchIsEmpty() {
+        //when
+        KnownException exception = assertThrows(KnownException.class,
+                () -> batchRewardService.calculateRewards(List.of()));
+
+        //then
+        assertThat(exception.getMessage()).isEqualTo(RewardValidators.EMPTY_BATCH.getMessage());
+    }
+
+    private TransactionDTO t(BigDecimal cost, ZonedDateTime time) {
+        return new TransactionDTO(cost, time);
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MonthBoundariesTest {
+
+    @Test
+    void shouldMatchCalendarCalculationInsideAndOutsideWindow() {
+        //given
+        MonthBoundaries boundaries = MonthBoundaries.around(YearMonth.of(2022, 3), 3);
+        long from = ZonedDateTime.of(2021, 6, 1, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+        long to = ZonedDateTime.of(2022, 8, 1, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+        Random random = new Random(7);
+        //when
+        //then
+        for (int i = 0; i < 100_000; i++) {
+            long epochSecond = from + (long) (random.nextDouble() * (to - from));
+            int offset = (random.nextInt(28 * 2 + 1) - 28) * 1800;
+            assertThat(boundaries.monthIndex(epochSecond, offset))
+                    .isEqualTo(MonthlyPointsAccumulator.monthIndex(epochSecond, offset));
+        }
+    }
+
+    @Test
+    void shouldPlaceMonthStartInThatMonth() {
+        //given
+        MonthBoundaries boundaries = MonthBoundaries.around(YearMonth.of(2022, 3), 3);
+        ZonedDateTime monthStart = ZonedDateTime.of(2022, 2, 1, 0, 0, 0, 0, ZoneOffset.ofHours(2));
+        //when
+        long month = boundaries.monthIndex(monthStart.toEpochSecond(), 7200);
+        long previousMonth = boundaries.monthIndex(monthStart.toEpochSecond() - 1, 7200);
+        //then
+        assertThat(month).isEqualTo(MonthlyPointsAccumulator.monthIndex(2022, 2));
+        assertThat(previousMonth).isEqualTo(MonthlyPointsAccumulator.monthIndex(2022, 1));
+    }
+}
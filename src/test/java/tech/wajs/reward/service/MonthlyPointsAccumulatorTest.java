@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import tech.wajs.reward.dto.MonthlyRewardDTO;
+import tech.wajs.reward.dto.RewardDTO;
+import tech.wajs.reward.exceptions.KnownException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MonthlyPointsAccumulatorTest {
+
+    @Test
+    void shouldSumPointsPerMonth() {
+        //given
+        MonthlyPointsAccumulator accumulator = new MonthlyPointsAccumulator();
+
+        //when
+        accumulator.add(MonthlyPointsAccumulator.monthIndex(2022, 11), 90);
+        accumulator.add(MonthlyPointsAccumulator.monthIndex(2022, 11), 90);
+        accumulator.add(MonthlyPointsAccumulator.monthIndex(2022, 10), 15);
+        RewardDTO reward = accumulator.toReward();
+
+        //then
+        assertThat(reward.getMonthlyRewards()).extracting(MonthlyRewardDTO::getYear, MonthlyRewardDTO::getMonth,
+                MonthlyRewardDTO::getPoints).containsExactlyInAnyOrder(
+                tuple(2022, 11, 180),
+                tuple(2022, 10, 15));
+        assertThat(reward.getTotalPoints()).isEqualTo(195);
+    }
+
+    @Test
+    void shouldKeepMonthWithoutPoints() {
+        //given
+        MonthlyPointsAccumulator accumulator = new MonthlyPointsAccumulator();
+
+        //when
+        accumulator.add(MonthlyPointsAccumulator.monthIndex(2022, 11), 0);
+        RewardDTO reward = accumulator.toReward();
+
+        //then
+        assertThat(reward.getMonthlyRewards().size()).isEqualTo(1);
+        assertThat(reward.getTotalPoints()).isZero();
+    }
+
+    @Test
+    void shouldGrowInBothDirectionsAcrossYears() {
+        //given
+        MonthlyPointsAccumulator accumulator = new MonthlyPointsAccumulator();
+
+        //when
+        accumulator.add(MonthlyPointsAccumulator.monthIndex(2022, 6), 1);
+        accumulator.add(MonthlyPointsAccumulator.monthIndex(2023, 2), 2);
+        accumulator.add(MonthlyPointsAccumulator.monthIndex(2021, 12), 4);
+        RewardDTO reward = accumulator.toReward();
+
+        //then
+        assertThat(reward.getMonthlyRewards()).extracting(MonthlyRewardDTO::getYear, MonthlyRewardDTO::getMonth)
+                                              .containsExactlyInAnyOrder(
+                                                      tuple(2022, 6),
+                                                      tuple(2023, 2),
+                                                      tuple(2021, 12));
+        assertThat(reward.getTotalPoints()).isEqualTo(7);
+    }
+
+    @Test
+    void shouldMergeAccumulators() {
+        //given
+        MonthlyPointsAccumulator accumulator = new MonthlyPointsAccumulator();
+        accumulator.add(MonthlyPointsAccumulator.monthIndex(2022, 11), 90);
+        MonthlyPointsAccumulator other = new MonthlyPointsAccumulator();
+        other.add(MonthlyPointsAccumulator.monthIndex(2022, 11), 10);
+        other.add(MonthlyPointsAccumulator.monthIndex(2022, 8), 0);
+
+        //when
+        accumulator.merge(other);
+        RewardDTO reward = accumulator.toReward();
+
+        //then
+        assertThat(reward.getMonthlyRewards()).extracting(MonthlyRewardDTO::getYear, MonthlyRewardDTO::getMonth,
+                MonthlyRewardDTO::getPoints).containsExactlyInAnyOrder(
+                tuple(2022, 11, 100),
+                tuple(2022, 8, 0));
+        assertThat(reward.getTotalPoints()).isEqualTo(100);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenMonthsSpanMoreThan100Years() {
+        //given
+        MonthlyPointsAccumulator accumulator = new MonthlyPointsAccumulator();
+        accumulator.add(MonthlyPointsAccumulator.monthIndex(2022, 11), 1);
+
+        //when
+        //then
+        assertThrows(KnownException.class,
+                () -> accumulator.add(MonthlyPointsAccumulator.monthIndex(2200, 1), 1));
+    }
+
+    @Test
+    void shouldThrowKnownExceptionWhenTotalPointsExceedInt() {
+        //given
+        MonthlyPointsAccumulator accumulator = new MonthlyPointsAccumulator();
+        accumulator.add(MonthlyPointsAccumulator.monthIndex(2022, 10), Integer.MAX_VALUE);
+        accumulator.add(MonthlyPointsAccumulator.monthIndex(2022, 11), 1);
+
+        //when
+        KnownException exception = assertThrows(KnownException.class, accumulator::toReward);
+
+        //then
+        assertThat(exception.getResponseCode()).isSameAs(HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import tech.wajs.reward.dto.RewardDTO;
+import tech.wajs.reward.dto.TransactionDTO;
+import tech.wajs.reward.exceptions.KnownException;
+import tech.wajs.reward.metrics.RewardMetrics;
+import tech.wajs.reward.programs.RewardProgram;
+import tech.wajs.reward.validators.RewardValidators;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReactiveRewardServiceTest {
+
+    RewardValidators validators = new RewardValidators();
+    RewardService rewardService = new RewardService(validators, null, RewardProgram.DEFAULT,
+            Clock.systemDefaultZone(), RewardMetrics.noop());
+    ReactiveRewardService reactiveRewardService =
+            new ReactiveRewardService(rewardService, validators, RewardMetrics.noop(), 16);
+
+    @Test
+    void shouldReduceTransactionsIntoMonthlyTotals() {
+        //given
+        Flux<TransactionDTO> transactions = Flux.just(t(120, ZonedDateTime.now()), t(120, ZonedDateTime.now()),
+                t(65, ZonedDateTime.now().minusMonths(1)));
+
+        //when
+        RewardDTO reward = reactiveRewardService.calculateReward(transactions, RewardProgram.DEFAULT).block();
+
+        //then
+        assertThat(reward.getMonthlyRewards().size()).isEqualTo(2);
+        assertThat(reward.getTotalPoints()).isEqualTo(90 + 90 + 15);
+    }
+
+    @Test
+    void shouldNeverRequestMoreThanPrefetchAhead() {
+        //given
+        AtomicLong maxRequest = new AtomicLong();
+        Flux<TransactionDTO> transactions = Flux.range(0, 1_000)
+                                                .map(i -> t(120, ZonedDateTime.now()))
+                                                .doOnRequest(request -> maxRequest.accumulateAndGet(request, Math::max));
+
+        //when
+        RewardDTO reward = reactiveRewardService.calculateReward(transactions, RewardProgram.DEFAULT).block();
+
+        //then
+        assertThat(reward.getTotalPoints()).isEqualTo(1_000 * 90);
+        assertThat(maxRequest.get()).isLessThanOrEqualTo(16);
+    }
+
+    @Test
+    void shouldFailWhenTransactionIsInvalid() {
+        //given
+        Flux<TransactionDTO> transactions = Flux.just(t(120, ZonedDateTime.now()), t(-1, ZonedDateTime.now()));
+
+        //when
+        KnownException exception = assertThrows(KnownException.class,
+                () -> reactiveRewardService.calculateReward(transactions, RewardProgram.DEFAULT).block());
+
+        //then
+        assertThat(exception.getMessage()).isEqualTo(RewardValidators.NEGATIVE_COST.getMessage());
+    }
+
+    @Test
+    void shouldFailWhenThereAreNoTransactions() {
+        //given
+        //when
+        KnownException exception = assertThrows(KnownException.class,
+                () -> reactiveRewardService.calculateReward(Flux.empty(), RewardProgram.DEFAULT).block());
+
+        //then
+        assertThat(exception.getMessage()).isEqualTo(RewardValidators.NO_TRANSACTIONS.getMessage());
+    }
+
+    private TransactionDTO t(long cost, ZonedDateTime time) {
+        return new TransactionDTO(new BigDecimal(cost), time);
+    }
+}
@@ -4,31 +4,43 @@
 
 package tech.wajs.reward.service;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import tech.wajs.reward.dto.MonthlyRewardDTO;
 import tech.wajs.reward.dto.RewardDTO;
 import tech.wajs.reward.dto.TransactionDTO;
+import tech.wajs.reward.enums.ValidationMode;
+import tech.wajs.reward.metrics.RewardMetrics;
+import tech.wajs.reward.programs.RewardProgram;
 import tech.wajs.reward.validators.RewardValidators;
 
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.time.ZonedDateTime;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class RewardServiceTest {
 
-    @InjectMocks
     RewardService rewardService;
 
     @Mock
     RewardValidators validator;
 
+    @BeforeEach
+    void setUp() {
+        rewardService = new RewardService(validator, null, RewardProgram.DEFAULT, Clock.systemDefaultZone(),
+                RewardMetrics.noop());
+    }
+
     @Test
     void shouldReturn90PointsWhenSpend120() {
         //given
@@ -44,16 +56,33 @@ class RewardServiceTest {
         assertThat(rewardDTO.getTotalPoints()).isEqualTo(expectedPoints);
     }
 
+    @Test
+    void shouldValidateWholeListBeforeAggregatingWhenValidationModeIsAll() {
+        //given
+        List<TransactionDTO> transactions = List.of(t(new BigDecimal(120), ZonedDateTime.now()),
+                t(new BigDecimal(120), ZonedDateTime.now()));
+
+        //when
+        RewardDTO rewardDTO = rewardService.calculateReward(transactions, RewardProgram.DEFAULT, ValidationMode.ALL);
+
+        //then
+        verify(validator).validateAll(eq(transactions), anyList());
+        assertThat(rewardDTO.getTotalPoints()).isEqualTo(180);
+    }
+
     @Test
     void shouldReturnCorrectNumberOfPointsWhenOneTransaction() {
         testValues(0, new BigDecimal(0));
         testValues(0, new BigDecimal(45));
         testValues(0, new BigDecimal(50));
+        testValues(0, new BigDecimal("50.99"));
+        testValues(1, new BigDecimal("51.00"));
         testValues(15, new BigDecimal(65));
         testValues(49, new BigDecimal(99));
         testValues(50, new BigDecimal(100));
         testValues(50 + 40, new BigDecimal(120));
         testValues(50 + 240, new BigDecimal(220));
+        testValues(50 + 240, new BigDecimal("220.75"));
     }
 
     private void testValues(int expectedPoints, BigDecimal cost) {
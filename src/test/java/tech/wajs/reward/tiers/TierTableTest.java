@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.tiers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TierTableTest {
+
+    @Test
+    void shouldMatchHardcodedTwoTierRulesByDefault() {
+        TierTable table = TierTable.DEFAULT;
+
+        assertThat(table.points(0)).isEqualTo(0);
+        assertThat(table.points(50_00)).isEqualTo(0);
+        assertThat(table.points(50_99)).isEqualTo(0);
+        assertThat(table.points(51_00)).isEqualTo(1);
+        assertThat(table.points(99_00)).isEqualTo(49);
+        assertThat(table.points(100_00)).isEqualTo(50);
+        assertThat(table.points(120_00)).isEqualTo(90);
+        assertThat(table.points(220_00)).isEqualTo(290);
+    }
+
+    @Test
+    void shouldEvaluateUnsortedTiers() {
+        //given
+        TierTable table = TierTable.compile(List.of(new Tier(100, 2), new Tier(0, 1), new Tier(50, 3)));
+
+        //when
+        //then
+        assertThat(table.size()).isEqualTo(3);
+        assertThat(table.points(1_00)).isEqualTo(1);
+        assertThat(table.points(50_00)).isEqualTo(50);
+        assertThat(table.points(75_00)).isEqualTo(50 + 25 * 3);
+        assertThat(table.points(150_00)).isEqualTo(50 + 50 * 3 + 50 * 2);
+    }
+
+    @Test
+    void shouldReturnNoPointsWithoutTiers() {
+        assertThat(TierTable.compile(List.of()).points(1_000_00)).isEqualTo(0);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenThresholdIsDuplicated() {
+        assertThrows(IllegalArgumentException.class,
+                () -> TierTable.compile(List.of(new Tier(50, 1), new Tier(50, 2))));
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPointsPerDollarIsNegative() {
+        assertThrows(IllegalArgumentException.class, () -> TierTable.compile(List.of(new Tier(50, -1))));
+    }
+}
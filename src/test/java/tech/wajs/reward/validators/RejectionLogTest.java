@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.validators;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RejectionLogTest {
+
+    @Test
+    void shouldSuppressRejectionsAboveLimitAndReportThemInNextWindow() {
+        //given
+        AtomicLong now = new AtomicLong();
+        RejectionLog rejectionLog = new RejectionLog(2, now::get);
+        //when
+        long first = rejectionLog.tryAcquire();
+        long second = rejectionLog.tryAcquire();
+        long third = rejectionLog.tryAcquire();
+        long fourth = rejectionLog.tryAcquire();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        long nextWindow = rejectionLog.tryAcquire();
+        //then
+        assertThat(first).isZero();
+        assertThat(second).isZero();
+        assertThat(third).isEqualTo(-1);
+        assertThat(fourth).isEqualTo(-1);
+        assertThat(nextWindow).isEqualTo(2);
+    }
+}
@@ -5,17 +5,25 @@
 package tech.wajs.reward.validators;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
 import tech.wajs.reward.dto.TransactionDTO;
+import tech.wajs.reward.dto.ViolationDTO;
 import tech.wajs.reward.exceptions.KnownException;
+import tech.wajs.reward.exceptions.ValidationException;
 
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.*;
 
 class RewardValidatorsTest {
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2022-11-20T12:00:00Z"), ZoneOffset.UTC);
 
     RewardValidators validators = new RewardValidators();
 
@@ -52,9 +60,9 @@ class RewardValidatorsTest {
     @Test
     void shouldThrowExceptionWhenTransactionIsTooOld() {
         //given
-        Validator<TransactionDTO> validator = RewardValidators.TOO_OLD;
+        Validator<TransactionDTO> validator = tooOld();
         TransactionDTO objectToValidate = new TransactionDTO(new BigDecimal("100"),
-                ZonedDateTime.now().minusMonths(3).minusNanos(1));
+                ZonedDateTime.now(CLOCK).minusMonths(3).minusNanos(1));
         //when
         //then
         testValidator(validator, objectToValidate);
@@ -70,6 +78,52 @@ class RewardValidatorsTest {
         testValidator(validator, objectToValidate);
     }
 
+    @Test
+    void shouldRejectWithoutStackTraceAndWithDistinctErrorIds() {
+        //given
+        Validator<List<TransactionDTO>> validator = RewardValidators.EMPTY_LIST;
+        //when
+        KnownException first = assertThrows(KnownException.class, () -> validators.validate(List.of(), validator));
+        KnownException second = assertThrows(KnownException.class, () -> validators.validate(List.of(), validator));
+        //then
+        assertThat(first.getStackTrace()).isEmpty();
+        assertThat(first.getErrorId()).isNotEqualTo(second.getErrorId());
+        assertThat(first.getErrorId().version()).isEqualTo(4);
+        assertThat(first.getErrorId().variant()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCollectFirstViolationOfEveryInvalidTransaction() {
+        //given
+        ZonedDateTime now = ZonedDateTime.now(CLOCK);
+        List<TransactionDTO> transactions = List.of(
+                new TransactionDTO(new BigDecimal("-1"), now.minusMonths(4)),
+                new TransactionDTO(new BigDecimal("10"), now),
+                new TransactionDTO(null, now),
+                new TransactionDTO(new BigDecimal("10"), now.minusMonths(4)));
+        List<Validator<TransactionDTO>> transactionValidators = List.of(RewardValidators.DATE_OR_COST_MISSING,
+                RewardValidators.NEGATIVE_COST, tooOld());
+        //when
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> validators.validateAll(transactions, transactionValidators));
+        //then
+        assertThat(exception.getResponseCode()).isSameAs(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(exception.getViolations())
+                .extracting(ViolationDTO::getIndex, ViolationDTO::getMessage)
+                .containsExactly(tuple(0, RewardValidators.NEGATIVE_COST.getMessage()),
+                        tuple(2, RewardValidators.DATE_OR_COST_MISSING.getMessage()),
+                        tuple(3, RewardValidators.TOO_OLD_MESSAGE));
+    }
+
+    @Test
+    void shouldNotThrowWhenAllTransactionsAreValid() {
+        //given
+        List<TransactionDTO> transactions = List.of(new TransactionDTO(new BigDecimal("10"), ZonedDateTime.now()));
+        //when
+        //then
+        assertDoesNotThrow(() -> validators.validateAll(transactions, List.of(RewardValidators.NEGATIVE_COST)));
+    }
+
     private <T> void testValidator(Validator<T> validator, T objectUnderTest) {
         //when
         KnownException exception = assertThrows(KnownException.class, () -> {
@@ -80,5 +134,8 @@ class RewardValidatorsTest {
         assertThat(exception.getMessage()).contains(validator.getMessage());
         assertThat(exception.getResponseCode()).isSameAs(validator.getResponseCode());
     }
-}
 
+    private static Validator<TransactionDTO> tooOld() {
+        return ValidationContext.of(CLOCK, RewardValidators.MAX_AGE_IN_MONTHS).getTooOld();
+    }
+}
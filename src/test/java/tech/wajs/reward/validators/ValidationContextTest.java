@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2022 Konrad Wajs, All rights reserved.
+ */
+
+package tech.wajs.reward.validators;
+
+import org.junit.jupiter.api.Test;
+import tech.wajs.reward.dto.TransactionDTO;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValidationContextTest {
+
+    private final ZonedDateTime now = ZonedDateTime.of(2022, 11, 15, 12, 0, 0, 500, ZoneId.of("Europe/Warsaw"));
+    private final ValidationContext context = ValidationContext.of(Clock.fixed(now.toInstant(), now.getZone()), 3);
+
+    @Test
+    void shouldRejectTransactionsBeforeCutoff() {
+        //given
+        ZonedDateTime cutoff = now.minusMonths(3);
+        //when
+        //then
+        assertThat(context.getTooOld().getPredicate().test(t(cutoff.minusNanos(1)))).isTrue();
+        assertThat(context.getTooOld().getPredicate().test(t(cutoff))).isFalse();
+        assertThat(context.getTooOld().getPredicate().test(t(cutoff.withZoneSameInstant(ZoneOffset.UTC)))).isFalse();
+        assertThat(context.getTooOld().getMessage()).isEqualTo(RewardValidators.TOO_OLD_MESSAGE);
+    }
+
+    @Test
+    void shouldRejectTransactionsInMonthsAfterCurrentOneInTheirOwnZone() {
+        //given
+        ZonedDateTime lastMomentOfMonth = ZonedDateTime.of(2022, 11, 30, 23, 59, 59, 0, ZoneOffset.ofHours(-10));
+        ZonedDateTime firstMomentOfNextMonth = ZonedDateTime.of(2022, 12, 1, 0, 0, 0, 0, ZoneOffset.ofHours(14));
+        //when
+        //then
+        assertThat(context.getFutureMonth().getPredicate().test(t(lastMomentOfMonth))).isFalse();
+        assertThat(context.getFutureMonth().getPredicate().test(t(firstMomentOfNextMonth))).isTrue();
+        assertThat(context.getCurrentMonth()).isEqualTo(YearMonth.of(2022, 11));
+    }
+
+    private TransactionDTO t(ZonedDateTime time) {
+        return new TransactionDTO(BigDecimal.TEN, time);
+    }
+}